@@ -0,0 +1,142 @@
+package com.example.beaver_bargains.benchmark;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import com.example.beaver_bargains.entity.Conversation;
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.ItemStatus;
+import com.example.beaver_bargains.entity.User;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Deterministic in-memory data shared by the benchmarks, so none of them need
+ * Postgres, Redis or a Spring context.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "YmVhdmVyLWJhcmdhaW5zLWJlbmNobWFyay1zZWNyZXQta2V5LTAxMjM0NTY3ODk=";
+
+    private static final String[] WORDS = { "desk", "lamp", "chair", "textbook", "calculus", "bike", "helmet",
+            "monitor", "keyboard", "mouse", "couch", "table", "jacket", "beaver", "oregon", "state", "mini", "fridge",
+            "microwave", "kettle", "guitar", "amp", "speaker", "poster", "rug", "mirror", "shelf", "backpack",
+            "laptop", "charger", "headphones", "skateboard", "camping", "tent", "stove", "printer" };
+
+    private static final String[] TAGS = { "Free", "Electronics", "Furniture", "Kitchen", "Books", "Clothing",
+            "Sports", "Toys" };
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setEmail("user" + i + "@oregonstate.edu");
+            user.setBio("Bio for user " + i);
+            user.setProfileImageUrl("profile-" + i + ".png");
+            user.setEmailVerified(true);
+            users.add(user);
+        }
+        return users;
+    }
+
+    static List<Item> items(int count, List<User> users) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Item item = new Item();
+            item.setId((long) i + 1);
+            item.setTitle(sentence(random, 3 + random.nextInt(4)));
+            item.setDescription(sentence(random, 15 + random.nextInt(30)));
+            item.setPrice(BigDecimal.valueOf(random.nextInt(50_000), 2));
+            item.setListingDate(start.plusMinutes(i));
+            item.setImageUrls(Arrays.asList("image-" + i + "-a.jpg", "image-" + i + "-b.jpg"));
+            item.setTags(new HashSet<>(Arrays.asList(TAGS[random.nextInt(TAGS.length)],
+                    TAGS[random.nextInt(TAGS.length)])));
+            item.setSeller(users.get(random.nextInt(users.size())));
+            if (i % 5 == 0) {
+                item.setStatus(ItemStatus.SOLD);
+                item.setBuyer(users.get(random.nextInt(users.size())));
+                item.setPurchaseDate(start.plusDays(1).plusMinutes(i));
+            } else {
+                item.setStatus(ItemStatus.ACTIVE);
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    static List<Conversation> conversations(User owner, List<User> others) {
+        List<Conversation> conversations = new ArrayList<>(others.size());
+        for (int i = 0; i < others.size(); i++) {
+            Conversation conversation = new Conversation();
+            conversation.setId((long) i + 1);
+            if (i % 2 == 0) {
+                conversation.setUser1(owner);
+                conversation.setUser2(others.get(i));
+            } else {
+                conversation.setUser1(others.get(i));
+                conversation.setUser2(owner);
+            }
+            conversation.setLastMessageTimestamp(Instant.parse("2024-01-01T12:00:00Z").plusSeconds(i));
+            conversations.add(conversation);
+        }
+        return conversations;
+    }
+
+    static String query(int seed) {
+        Random random = new Random(seed);
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    static ObjectMapper webObjectMapper() {
+        return JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    }
+
+    /**
+     * Same typing setup as the no-argument GenericJackson2JsonRedisSerializer,
+     * plus java.time support so Item listing dates can be written at all.
+     */
+    static ObjectMapper redisObjectMapper() {
+        ObjectMapper mapper = webObjectMapper();
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.EVERYTHING,
+                JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName, e);
+        }
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
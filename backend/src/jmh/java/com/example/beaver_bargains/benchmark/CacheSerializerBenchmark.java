@@ -0,0 +1,98 @@
+package com.example.beaver_bargains.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.example.beaver_bargains.cache.CompactCacheSerializer;
+import com.example.beaver_bargains.entity.Item;
+
+/**
+ * Compares the JSON cache serializer with the compact one on item lists.
+ * Encoded sizes are reported next to the timings as the {@code bytes} and
+ * {@code bytesPerItem} secondary results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheSerializerBenchmark {
+
+    @Param({ "100", "1000" })
+    private int itemCount;
+
+    @Param({ "json", "compact", "compact-lz4" })
+    private String serializerName;
+
+    private List<Item> items;
+    private RedisSerializer<Object> serializer;
+    private byte[] cachedValue;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkFixtures.items(itemCount, BenchmarkFixtures.users(200));
+        serializer = switch (serializerName) {
+            case "json" -> new GenericJackson2JsonRedisSerializer(BenchmarkFixtures.redisObjectMapper());
+            case "compact" -> new CompactCacheSerializer(0);
+            case "compact-lz4" -> new CompactCacheSerializer(1024);
+            default -> throw new IllegalArgumentException(serializerName);
+        };
+        cachedValue = serializer.serialize(items);
+    }
+
+    @Benchmark
+    public byte[] serialize(PayloadSize size) {
+        byte[] value = serializer.serialize(items);
+        size.record(value.length, itemCount);
+        return value;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(cachedValue);
+    }
+
+    /**
+     * Size of the encoded value. JMH sums EVENTS counters over all
+     * measurement iterations and forks, so each iteration reports its share.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        private double share;
+        private double bytes;
+        private double bytesPerItem;
+
+        @Setup(Level.Iteration)
+        public void reset(BenchmarkParams params) {
+            share = 1.0 / (params.getMeasurement().getCount() * Math.max(1, params.getForks()));
+            bytes = 0;
+            bytesPerItem = 0;
+        }
+
+        void record(int length, int itemCount) {
+            bytes = length * share;
+            bytesPerItem = (double) length / itemCount * share;
+        }
+
+        public double bytes() {
+            return bytes;
+        }
+
+        public double bytesPerItem() {
+            return bytesPerItem;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.beaver_bargains.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.beaver_bargains.dto.UserDto;
+import com.example.beaver_bargains.entity.Conversation;
+import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.repository.ConversationRepository;
+import com.example.beaver_bargains.service.MessageService;
+import com.example.beaver_bargains.service.UserService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConversationUsersBenchmark {
+
+    @Param({ "10", "200" })
+    private int conversationCount;
+
+    private MessageService messageService;
+    private String ownerEmail;
+
+    @Setup
+    public void setUp() {
+        List<User> users = BenchmarkFixtures.users(conversationCount + 1);
+        User owner = users.get(0);
+        ownerEmail = owner.getEmail();
+        List<Conversation> conversations = BenchmarkFixtures.conversations(owner,
+                users.subList(1, users.size()));
+
+        ConversationRepository conversationRepository = (ConversationRepository) Proxy.newProxyInstance(
+                ConversationRepository.class.getClassLoader(), new Class<?>[] { ConversationRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByUser1OrUser2")) {
+                        return conversations;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        UserService userService = new UserService() {
+            @Override
+            public User getUserByEmail(String email) {
+                return owner;
+            }
+        };
+
+        messageService = new MessageService();
+        BenchmarkFixtures.inject(messageService, "conversationRepository", conversationRepository);
+        BenchmarkFixtures.inject(messageService, "userService", userService);
+    }
+
+    @Benchmark
+    public List<UserDto> getConversationUsers() {
+        return messageService.getConversationUsers(ownerEmail);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.beaver_bargains.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.example.beaver_bargains.entity.Item;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemSerializationBenchmark {
+
+    @Param({ "100", "1000" })
+    private int itemCount;
+
+    private List<Item> items;
+    private ObjectMapper objectMapper;
+    private GenericJackson2JsonRedisSerializer redisSerializer;
+    private byte[] cachedValue;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkFixtures.items(itemCount, BenchmarkFixtures.users(200));
+        objectMapper = BenchmarkFixtures.webObjectMapper();
+        redisSerializer = new GenericJackson2JsonRedisSerializer(BenchmarkFixtures.redisObjectMapper());
+        cachedValue = redisSerializer.serialize(items);
+    }
+
+    @Benchmark
+    public byte[] jacksonResponseBody() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] redisSerialize() {
+        return redisSerializer.serialize(items);
+    }
+
+    @Benchmark
+    public Object redisDeserialize() {
+        return redisSerializer.deserialize(cachedValue);
+    }
+
+    @Benchmark
+    public Object redisRoundTrip() {
+        return redisSerializer.deserialize(redisSerializer.serialize(items));
+    }
+}
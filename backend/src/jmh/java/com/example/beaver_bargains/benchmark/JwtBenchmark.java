@@ -0,0 +1,45 @@
+package com.example.beaver_bargains.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.beaver_bargains.security.CustomUserDetails;
+import com.example.beaver_bargains.security.JwtClaims;
+import com.example.beaver_bargains.security.JwtUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private CustomUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        BenchmarkFixtures.inject(jwtUtil, "secretKey", BenchmarkFixtures.JWT_SECRET);
+        BenchmarkFixtures.inject(jwtUtil, "expirationTime", 3_600_000L);
+        userDetails = new CustomUserDetails(BenchmarkFixtures.users(1).get(0));
+        token = jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean extractUsernameAndValidate() {
+        String username = jwtUtil.extractUsername(token);
+        return username != null && jwtUtil.validateToken(token, userDetails);
+    }
+
+    @Benchmark
+    public JwtClaims parse() {
+        return jwtUtil.parse(token);
+    }
+}
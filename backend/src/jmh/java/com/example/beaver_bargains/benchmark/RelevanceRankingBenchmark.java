@@ -0,0 +1,74 @@
+package com.example.beaver_bargains.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.search.RelevanceRanker;
+
+/**
+ * {@link RelevanceRanker} against the comparator it replaced, which scored
+ * both items on every comparison and lower-cased title and description each
+ * time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RelevanceRankingBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int itemCount;
+
+    @Param({ "20", "100000" })
+    private int limit;
+
+    private List<Item> candidates;
+    private String query;
+    private String[] keywords;
+
+    @Setup
+    public void setUp() {
+        candidates = BenchmarkFixtures.items(itemCount, BenchmarkFixtures.users(200));
+        query = BenchmarkFixtures.query(7);
+        keywords = RelevanceRanker.keywords(query);
+    }
+
+    @Benchmark
+    public List<Item> legacyComparator() {
+        String[] legacyKeywords = query.toLowerCase().split("\\s+");
+        return candidates.stream()
+                .sorted((item1, item2) -> Integer.compare(
+                        legacyScore(item2, legacyKeywords),
+                        legacyScore(item1, legacyKeywords)))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Item> relevanceRanker() {
+        return RelevanceRanker.rank(candidates, keywords, limit);
+    }
+
+    private static int legacyScore(Item item, String[] keywords) {
+        int score = 0;
+        for (String keyword : keywords) {
+            if (item.getTitle().toLowerCase().contains(keyword)) {
+                score += 2;
+            }
+            if (item.getDescription().toLowerCase().contains(keyword)) {
+                score += 1;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.beaver_bargains.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.search.ItemSearchIndex;
+import com.example.beaver_bargains.search.RelevanceRanker;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchRankingBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int itemCount;
+
+    @Param({ "20", "500" })
+    private int limit;
+
+    private List<Item> candidates;
+    private String query;
+    private String[] keywords;
+    private ItemSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        List<User> users = BenchmarkFixtures.users(200);
+        candidates = BenchmarkFixtures.items(itemCount, users);
+        query = BenchmarkFixtures.query(7);
+        keywords = RelevanceRanker.keywords(query);
+
+        index = new ItemSearchIndex();
+        for (Item item : candidates) {
+            if (item.isActive()) {
+                index.index(item);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Item> criteriaRanking() {
+        return RelevanceRanker.rank(candidates, keywords, limit);
+    }
+
+    @Benchmark
+    public List<Long> invertedIndexSearch() {
+        return index.search(query, null, 1L, limit);
+    }
+}
@@ -2,8 +2,10 @@ package com.example.beaver_bargains;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BeaverBargainsApplication {
 
     public static void main(String[] args) {
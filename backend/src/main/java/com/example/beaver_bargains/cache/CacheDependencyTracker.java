@@ -0,0 +1,219 @@
+package com.example.beaver_bargains.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.example.beaver_bargains.dto.ItemPageDto;
+import com.example.beaver_bargains.entity.Item;
+
+/**
+ * Remembers which cache entries contain which items and sellers. Each
+ * dependency is a Redis set such as {@code cache:deps:item:42} whose members
+ * are {@code cacheName|key}, so a mutation can find exactly the entries it
+ * makes stale instead of clearing whole caches.
+ * <p>
+ * Every invalidation also stamps its dependencies with the next value of a
+ * global generation counter ({@code cache:gen:item:42}). A load reads the
+ * counter before it starts and compares it with the stamps of what it
+ * loaded, so a value read before a mutation is not cached after it.
+ */
+public class CacheDependencyTracker {
+
+    private static final String PREFIX = "cache:deps:";
+    private static final String GENERATION_PREFIX = "cache:gen:";
+    private static final String GENERATION_COUNTER = GENERATION_PREFIX + "counter";
+    private static final String SEPARATOR = "|";
+    private static final RedisScript<Long> STAMP_SCRIPT = new DefaultRedisScript<>(
+            "local generation = redis.call('incr', KEYS[1]) "
+                    + "for i = 2, #KEYS do redis.call('set', KEYS[i], generation, 'EX', ARGV[1]) end "
+                    + "return generation",
+            Long.class);
+
+    /** Returned by {@link #generation()} when Redis cannot be read. */
+    static final long UNKNOWN_GENERATION = -1;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public CacheDependencyTracker(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    public static String item(Long itemId) {
+        return PREFIX + "item:" + itemId;
+    }
+
+    public static String seller(Long sellerId) {
+        return PREFIX + "seller:" + sellerId;
+    }
+
+    /**
+     * Records the dependencies of a value that was just cached. Values that
+     * hold no items are ignored. If Redis is unavailable the entry is simply
+     * not tracked and goes stale until its TTL, like before.
+     */
+    void record(String cacheName, String key, Object value) {
+        Set<String> dependencies = dependenciesOf(value);
+        if (dependencies.isEmpty()) {
+            return;
+        }
+        byte[] member = (cacheName + SEPARATOR + key).getBytes(StandardCharsets.UTF_8);
+        long ttlSeconds = ttl.getSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String dependency : dependencies) {
+                    byte[] dependencyKey = dependency.getBytes(StandardCharsets.UTF_8);
+                    connection.setCommands().sAdd(dependencyKey, member);
+                    connection.keyCommands().expire(dependencyKey, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            // Untracked entries still expire on their own TTL.
+        }
+    }
+
+    /**
+     * The current value of the generation counter, to pass to
+     * {@link #changedSince} once a load finishes.
+     */
+    long generation() {
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_COUNTER);
+            return generation == null ? 0 : Long.parseLong(generation);
+        } catch (DataAccessException e) {
+            return UNKNOWN_GENERATION;
+        }
+    }
+
+    /**
+     * True when any item or seller in the value was invalidated after the
+     * counter read {@code generation}.
+     */
+    boolean changedSince(Object value, long generation) {
+        if (generation == UNKNOWN_GENERATION) {
+            return false;
+        }
+        Set<String> dependencies = dependenciesOf(value);
+        if (dependencies.isEmpty()) {
+            return false;
+        }
+        List<String> stamps;
+        try {
+            stamps = redisTemplate.opsForValue().multiGet(
+                    dependencies.stream().map(CacheDependencyTracker::generationKey).toList());
+        } catch (DataAccessException e) {
+            return false;
+        }
+        if (stamps == null) {
+            return false;
+        }
+        for (String stamp : stamps) {
+            if (stamp != null && Long.parseLong(stamp) > generation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stamps the given dependency keys with a new generation, then removes
+     * and returns the entries that depend on any of them, as
+     * {@link Dependent}s. Stamping first means a load either sees the stamp
+     * or has already recorded itself as a dependent by the time it is read.
+     */
+    List<Dependent> takeDependents(Collection<String> dependencies) {
+        if (dependencies.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> stampKeys = new ArrayList<>(dependencies.size() + 1);
+        stampKeys.add(GENERATION_COUNTER);
+        dependencies.forEach(dependency -> stampKeys.add(generationKey(dependency)));
+        try {
+            redisTemplate.execute(STAMP_SCRIPT, stampKeys, String.valueOf(ttl.getSeconds()));
+        } catch (DataAccessException e) {
+            // Loads in flight may cache a stale value until its TTL, like before.
+        }
+
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[][] keys = toKeys(dependencies);
+                connection.setCommands().sUnion(keys);
+                connection.keyCommands().del(keys);
+                return null;
+            });
+        } catch (DataAccessException e) {
+            return Collections.emptyList();
+        }
+
+        List<Dependent> dependents = new ArrayList<>();
+        if (!results.isEmpty() && results.get(0) instanceof Collection<?> members) {
+            for (Object member : members) {
+                String entry = String.valueOf(member);
+                int separator = entry.indexOf(SEPARATOR);
+                if (separator > 0) {
+                    dependents.add(new Dependent(entry.substring(0, separator), entry.substring(separator + 1)));
+                }
+            }
+        }
+        return dependents;
+    }
+
+    private static String generationKey(String dependency) {
+        return GENERATION_PREFIX + dependency.substring(PREFIX.length());
+    }
+
+    private static byte[][] toKeys(Collection<String> dependencies) {
+        byte[][] keys = new byte[dependencies.size()][];
+        int i = 0;
+        for (String dependency : dependencies) {
+            keys[i++] = dependency.getBytes(StandardCharsets.UTF_8);
+        }
+        return keys;
+    }
+
+    private static Set<String> dependenciesOf(Object value) {
+        Collection<?> elements;
+        if (value instanceof ItemPageDto page) {
+            elements = page.getItems();
+        } else if (value instanceof Collection<?> collection) {
+            elements = collection;
+        } else if (value instanceof Item item) {
+            elements = Collections.singletonList(item);
+        } else {
+            return Collections.emptySet();
+        }
+        if (elements == null) {
+            return Collections.emptySet();
+        }
+
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (Object element : elements) {
+            if (!(element instanceof Item item)) {
+                return Collections.emptySet();
+            }
+            dependencies.add(item(item.getId()));
+            if (item.getSeller() != null) {
+                dependencies.add(seller(item.getSeller().getId()));
+            }
+        }
+        return dependencies;
+    }
+
+    record Dependent(String cacheName, String key) {
+    }
+}
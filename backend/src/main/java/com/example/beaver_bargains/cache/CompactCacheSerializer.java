@@ -0,0 +1,510 @@
+package com.example.beaver_bargains.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.example.beaver_bargains.dto.FavoriteIdSet;
+import com.example.beaver_bargains.dto.ItemPageDto;
+import com.example.beaver_bargains.dto.UserDto;
+import com.example.beaver_bargains.entity.Conversation;
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.ItemStatus;
+import com.example.beaver_bargains.entity.Message;
+import com.example.beaver_bargains.entity.User;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * Binary encoding for the shapes we actually cache: items with their seller
+ * and buyer, users, messages, conversations, pages and collections of
+ * scalars. Field order is fixed by the schema below, so no type metadata or
+ * field names are written, and a user that appears several times in one
+ * value (the same seller on many items) is written once and referenced
+ * afterwards. Favorite id sets are written as ascending varint deltas.
+ * Anything else falls back to typed JSON. Encoded values above
+ * the compression threshold are LZ4-compressed when that makes them smaller.
+ */
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    private static final byte FORMAT_PLAIN = 0;
+    private static final byte FORMAT_LZ4 = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INT = 3;
+    private static final byte TRUE = 4;
+    private static final byte FALSE = 5;
+    private static final byte BIG_DECIMAL = 6;
+    private static final byte LOCAL_DATE_TIME = 7;
+    private static final byte INSTANT = 8;
+    private static final byte LIST = 9;
+    private static final byte SET = 10;
+    private static final byte PATH = 11;
+    private static final byte ITEM = 20;
+    private static final byte USER = 21;
+    private static final byte USER_REF = 22;
+    private static final byte USER_DTO = 23;
+    private static final byte ITEM_PAGE = 24;
+    private static final byte MESSAGE = 25;
+    private static final byte CONVERSATION = 26;
+    private static final byte FAVORITE_IDS = 27;
+    private static final byte JSON = 99;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final int compressionThreshold;
+    private final GenericJackson2JsonRedisSerializer jsonFallback;
+
+    public CompactCacheSerializer(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        this.jsonFallback = new GenericJackson2JsonRedisSerializer(fallbackObjectMapper());
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        Writer writer = new Writer();
+        writer.buffer.writeByte(FORMAT_PLAIN);
+        writeValue(writer, value);
+        byte[] plain = writer.buffer.toByteArray();
+
+        int payloadLength = plain.length - 1;
+        if (compressionThreshold <= 0 || payloadLength < compressionThreshold) {
+            return plain;
+        }
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        byte[] compressed = compressor.compress(plain, 1, payloadLength);
+        Buffer framed = new Buffer(compressed.length + 6);
+        framed.writeByte(FORMAT_LZ4);
+        framed.writeVarLong(payloadLength);
+        framed.writeBytes(compressed, 0, compressed.length);
+        return framed.size() < plain.length ? framed.toByteArray() : plain;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        Reader reader;
+        if (bytes[0] == FORMAT_PLAIN) {
+            reader = new Reader(bytes, 1);
+        } else if (bytes[0] == FORMAT_LZ4) {
+            Reader header = new Reader(bytes, 1);
+            int payloadLength = (int) header.readVarLong();
+            LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+            byte[] payload = new byte[payloadLength];
+            decompressor.decompress(bytes, header.position, payload, 0, payloadLength);
+            reader = new Reader(payload, 0);
+        } else if (bytes[0] == '{' || bytes[0] == '[') {
+            // Entries written by the JSON serializer before this cache was switched over.
+            return jsonFallback.deserialize(bytes);
+        } else {
+            throw new SerializationException("Unknown compact cache format " + bytes[0]);
+        }
+        return readValue(reader);
+    }
+
+    private void writeValue(Writer writer, Object value) {
+        Buffer out = writer.buffer;
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            out.writeString(string);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof Integer number) {
+            out.writeByte(INT);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(bool ? TRUE : FALSE);
+        } else if (value instanceof BigDecimal decimal) {
+            out.writeByte(BIG_DECIMAL);
+            out.writeVarLong(zigZag(decimal.scale()));
+            byte[] unscaled = decimal.unscaledValue().toByteArray();
+            out.writeVarLong(unscaled.length);
+            out.writeBytes(unscaled, 0, unscaled.length);
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeVarLong(zigZag(dateTime.toEpochSecond(ZoneOffset.UTC)));
+            out.writeVarLong(dateTime.getNano());
+        } else if (value instanceof Instant instant) {
+            out.writeByte(INSTANT);
+            out.writeVarLong(zigZag(instant.getEpochSecond()));
+            out.writeVarLong(instant.getNano());
+        } else if (value instanceof Path path) {
+            out.writeByte(PATH);
+            out.writeString(path.toString());
+        } else if (value instanceof Item item) {
+            out.writeByte(ITEM);
+            writeItem(writer, item);
+        } else if (value instanceof User user) {
+            writeUser(writer, user);
+        } else if (value instanceof UserDto userDto) {
+            out.writeByte(USER_DTO);
+            writeValue(writer, userDto.getId());
+            writeValue(writer, userDto.getFirstName());
+            writeValue(writer, userDto.getLastName());
+            writeValue(writer, userDto.getEmail());
+            writeValue(writer, userDto.getBio());
+            writeValue(writer, userDto.getProfileImageUrl());
+            writeValue(writer, userDto.getItemIds());
+            writeValue(writer, userDto.getPurchasedItemIds());
+        } else if (value instanceof ItemPageDto page) {
+            out.writeByte(ITEM_PAGE);
+            writeValue(writer, page.getItems());
+            writeValue(writer, page.getNextCursor());
+        } else if (value instanceof Message message) {
+            out.writeByte(MESSAGE);
+            writeValue(writer, message.getId());
+            writeValue(writer, message.getConversation());
+            writeValue(writer, message.getSender());
+            writeValue(writer, message.getReceiver());
+            writeValue(writer, message.getContent());
+            writeValue(writer, message.getTimestamp());
+            writeValue(writer, message.getIsRead());
+        } else if (value instanceof Conversation conversation) {
+            out.writeByte(CONVERSATION);
+            writeValue(writer, conversation.getId());
+            writeValue(writer, conversation.getUser1());
+            writeValue(writer, conversation.getUser2());
+            writeValue(writer, conversation.getLastMessageTimestamp());
+        } else if (value instanceof FavoriteIdSet favorites) {
+            out.writeByte(FAVORITE_IDS);
+            out.writeVarLong(favorites.size());
+            long previous = 0;
+            for (int i = 0; i < favorites.size(); i++) {
+                out.writeVarLong(favorites.get(i) - previous);
+                previous = favorites.get(i);
+            }
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            writeElements(writer, list);
+        } else if (value instanceof Set<?> set) {
+            out.writeByte(SET);
+            writeElements(writer, set);
+        } else {
+            byte[] json = jsonFallback.serialize(value);
+            out.writeByte(JSON);
+            out.writeVarLong(json.length);
+            out.writeBytes(json, 0, json.length);
+        }
+    }
+
+    private void writeElements(Writer writer, Collection<?> elements) {
+        writer.buffer.writeVarLong(elements.size());
+        for (Object element : elements) {
+            writeValue(writer, element);
+        }
+    }
+
+    private void writeItem(Writer writer, Item item) {
+        writeValue(writer, item.getId());
+        writeValue(writer, item.getTitle());
+        writeValue(writer, item.getDescription());
+        writeValue(writer, item.getPrice());
+        writeValue(writer, item.getListingDate());
+        writeValue(writer, item.getPurchaseDate());
+        writeValue(writer, item.getImageUrls() == null ? null : new ArrayList<>(item.getImageUrls()));
+        writeValue(writer, item.getTags() == null ? null : new LinkedHashSet<>(item.getTags()));
+        writer.buffer.writeByte(item.getStatus() == null ? -1 : item.getStatus().ordinal());
+        writeValue(writer, item.getSeller());
+        writeValue(writer, item.getBuyer());
+    }
+
+    private void writeUser(Writer writer, User user) {
+        Integer reference = writer.users.get(user);
+        if (reference != null) {
+            writer.buffer.writeByte(USER_REF);
+            writer.buffer.writeVarLong(reference);
+            return;
+        }
+        writer.users.put(user, writer.users.size());
+        writer.buffer.writeByte(USER);
+        writeValue(writer, user.getId());
+        writeValue(writer, user.getFirstName());
+        writeValue(writer, user.getLastName());
+        writeValue(writer, user.getEmail());
+        writeValue(writer, user.getBio());
+        writeValue(writer, user.getProfileImageUrl());
+    }
+
+    private Object readValue(Reader in) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readString();
+            case LONG:
+                return unZigZag(in.readVarLong());
+            case INT:
+                return (int) unZigZag(in.readVarLong());
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BIG_DECIMAL: {
+                int scale = (int) unZigZag(in.readVarLong());
+                byte[] unscaled = in.readBytes((int) in.readVarLong());
+                return new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            case LOCAL_DATE_TIME:
+                return LocalDateTime.ofEpochSecond(unZigZag(in.readVarLong()), (int) in.readVarLong(), ZoneOffset.UTC);
+            case INSTANT:
+                return Instant.ofEpochSecond(unZigZag(in.readVarLong()), in.readVarLong());
+            case PATH:
+                return Paths.get(in.readString());
+            case LIST: {
+                int size = (int) in.readVarLong();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case SET: {
+                int size = (int) in.readVarLong();
+                Set<Object> set = new LinkedHashSet<>();
+                for (int i = 0; i < size; i++) {
+                    set.add(readValue(in));
+                }
+                return set;
+            }
+            case ITEM:
+                return readItem(in);
+            case USER:
+                return readUser(in);
+            case USER_REF:
+                return in.users.get((int) in.readVarLong());
+            case USER_DTO: {
+                UserDto userDto = new UserDto();
+                userDto.setId((Long) readValue(in));
+                userDto.setFirstName((String) readValue(in));
+                userDto.setLastName((String) readValue(in));
+                userDto.setEmail((String) readValue(in));
+                userDto.setBio((String) readValue(in));
+                userDto.setProfileImageUrl((String) readValue(in));
+                userDto.setItemIds(longList(readValue(in)));
+                userDto.setPurchasedItemIds(longList(readValue(in)));
+                return userDto;
+            }
+            case ITEM_PAGE: {
+                List<Item> items = itemList(readValue(in));
+                return new ItemPageDto(items, (String) readValue(in));
+            }
+            case MESSAGE: {
+                Message message = new Message();
+                message.setId((Long) readValue(in));
+                message.setConversation((Conversation) readValue(in));
+                message.setSender((User) readValue(in));
+                message.setReceiver((User) readValue(in));
+                message.setContent((String) readValue(in));
+                message.setTimestamp((Instant) readValue(in));
+                message.setIsRead((Boolean) readValue(in));
+                return message;
+            }
+            case CONVERSATION: {
+                Conversation conversation = new Conversation();
+                conversation.setId((Long) readValue(in));
+                conversation.setUser1((User) readValue(in));
+                conversation.setUser2((User) readValue(in));
+                conversation.setLastMessageTimestamp((Instant) readValue(in));
+                return conversation;
+            }
+            case FAVORITE_IDS: {
+                long[] ids = new long[(int) in.readVarLong()];
+                long previous = 0;
+                for (int i = 0; i < ids.length; i++) {
+                    previous += in.readVarLong();
+                    ids[i] = previous;
+                }
+                return FavoriteIdSet.of(ids);
+            }
+            case JSON:
+                return jsonFallback.deserialize(in.readBytes((int) in.readVarLong()));
+            default:
+                throw new SerializationException("Unknown compact cache tag " + tag);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Item readItem(Reader in) {
+        Item item = new Item();
+        item.setId((Long) readValue(in));
+        item.setTitle((String) readValue(in));
+        item.setDescription((String) readValue(in));
+        item.setPrice((BigDecimal) readValue(in));
+        item.setListingDate((LocalDateTime) readValue(in));
+        item.setPurchaseDate((LocalDateTime) readValue(in));
+        item.setImageUrls((List<String>) readValue(in));
+        Set<String> tags = (Set<String>) readValue(in);
+        item.setTags(tags == null ? null : new HashSet<>(tags));
+        byte status = in.readByte();
+        item.setStatus(status < 0 ? null : ItemStatus.values()[status]);
+        item.setSeller((User) readValue(in));
+        item.setBuyer((User) readValue(in));
+        return item;
+    }
+
+    private User readUser(Reader in) {
+        User user = new User();
+        in.users.add(user);
+        user.setId((Long) readValue(in));
+        user.setFirstName((String) readValue(in));
+        user.setLastName((String) readValue(in));
+        user.setEmail((String) readValue(in));
+        user.setBio((String) readValue(in));
+        user.setProfileImageUrl((String) readValue(in));
+        return user;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> longList(Object value) {
+        return (List<Long>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Item> itemList(Object value) {
+        return (List<Item>) value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static ObjectMapper fallbackObjectMapper() {
+        ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.EVERYTHING,
+                JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+
+    private static class Writer {
+        private final Buffer buffer = new Buffer(256);
+        private final Map<User, Integer> users = new IdentityHashMap<>();
+    }
+
+    private static class Buffer {
+        private byte[] bytes;
+        private int size;
+
+        private Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            writeBytes(utf8, 0, utf8.length);
+        }
+
+        private void writeBytes(byte[] source, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private int position;
+        private final List<User> users = new ArrayList<>();
+
+        private Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private byte readByte() {
+            return bytes[position++];
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = bytes[position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+
+        private String readString() {
+            int length = (int) readVarLong();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private byte[] readBytes(int length) {
+            byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.beaver_bargains.cache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Cache with a bounded in-process Caffeine tier in front of the shared Redis
+ * tier. Reads are served locally when possible; every write or eviction goes
+ * to Redis first and is then broadcast so other instances drop their local
+ * copy of the key.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final long LOCK_POLL_MILLIS = 50;
+    private static final double REFRESH_BETA = 1.0;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final TwoTierCacheManager manager;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Freshness> freshness;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter loads;
+    private final Counter coalescedLoads;
+    private final Counter lockWaits;
+    private final Counter refreshAheadLoads;
+    private final Counter refreshAheadFailures;
+    private final Counter staleLoads;
+
+    TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+            TwoTierCacheManager manager) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.freshness = Caffeine.newBuilder().maximumSize(10_000).expireAfterWrite(manager.getTtl()).build();
+        this.loads = manager.loadCounter(name, "loaded");
+        this.coalescedLoads = manager.loadCounter(name, "coalesced");
+        this.lockWaits = manager.loadCounter(name, "lock_wait");
+        this.refreshAheadLoads = manager.loadCounter(name, "refresh_ahead");
+        this.refreshAheadFailures = manager.loadCounter(name, "refresh_failed");
+        this.staleLoads = manager.loadCounter(name, "stale");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            local.put(localKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Loads through both tiers with single-flight semantics: concurrent
+     * callers on this instance share one load per key, and a short Redis
+     * lock makes other instances wait for that load instead of repeating it.
+     * Values loaded here are refreshed ahead of their remote expiry with
+     * probability rising as expiry nears (XFetch), so hot keys do not all
+     * miss at once.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            maybeRefreshAhead(key, localKey, valueLoader);
+            return (T) value;
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, flight);
+        if (existing != null) {
+            coalescedLoads.increment();
+            return (T) await(existing);
+        }
+        try {
+            Object loaded = loadShared(key, localKey, valueLoader);
+            flight.complete(loaded);
+            return (T) loaded;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        if (value != null) {
+            local.put(localKey, value);
+            manager.recordDependencies(name, localKey, value);
+        }
+        manager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null && value != null) {
+            String localKey = localKey(key);
+            local.put(localKey, value);
+            manager.recordDependencies(name, localKey, value);
+            manager.publishEvict(name, localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        freshness.invalidate(localKey);
+        manager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        freshness.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+        freshness.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+        freshness.invalidateAll();
+    }
+
+    private Object loadShared(Object key, String localKey, Callable<?> valueLoader) {
+        ValueWrapper cached = remote.get(key);
+        if (cached != null && cached.get() != null) {
+            local.put(localKey, cached.get());
+            return cached.get();
+        }
+        String lockToken = manager.tryLock(name, localKey);
+        if (lockToken == null) {
+            Object loadedElsewhere = awaitRemote(key);
+            if (loadedElsewhere != null) {
+                lockWaits.increment();
+                local.put(localKey, loadedElsewhere);
+                return loadedElsewhere;
+            }
+        }
+        try {
+            return load(key, localKey, valueLoader);
+        } finally {
+            if (lockToken != null) {
+                manager.unlock(name, localKey, lockToken);
+            }
+        }
+    }
+
+    /**
+     * Runs the loader and caches its value unless an item or seller in it was
+     * invalidated while it ran. The check is repeated after the dependencies
+     * are recorded, because an invalidation landing between the first check
+     * and the recording would otherwise find nothing to evict.
+     */
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        long generation = manager.dependencyGeneration();
+        long started = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long computeMillis = (System.nanoTime() - started) / 1_000_000;
+        loads.increment();
+        if (value != null) {
+            if (manager.dependenciesChangedSince(value, generation)) {
+                staleLoads.increment();
+                return value;
+            }
+            remote.put(key, value);
+            local.put(localKey, value);
+            freshness.put(localKey, new Freshness(computeMillis, System.currentTimeMillis() + manager.getTtl().toMillis()));
+            manager.recordDependencies(name, localKey, value);
+            if (manager.dependenciesChangedSince(value, generation)) {
+                staleLoads.increment();
+                evict(key);
+            }
+        }
+        return value;
+    }
+
+    private Object awaitRemote(Object key) {
+        long deadline = System.currentTimeMillis() + TwoTierCacheManager.LOCK_TIMEOUT.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                return wrapper.get();
+            }
+        }
+        return null;
+    }
+
+    private void maybeRefreshAhead(Object key, String localKey, Callable<?> valueLoader) {
+        Freshness entry = freshness.getIfPresent(localKey);
+        if (entry == null || !entry.shouldRefresh(System.currentTimeMillis()) || !refreshing.add(localKey)) {
+            return;
+        }
+        try {
+            manager.getRefreshExecutor().execute(() -> {
+                String lockToken = manager.tryLock(name, localKey);
+                try {
+                    if (lockToken != null) {
+                        refreshAheadLoads.increment();
+                        // The pool thread has no request-scoped session, so loading and
+                        // serializing lazy associations needs its own transaction.
+                        manager.getRefreshTransaction().executeWithoutResult(status -> load(key, localKey, valueLoader));
+                        manager.publishEvict(name, localKey);
+                    }
+                } catch (RuntimeException e) {
+                    // The current value stays until it expires; the next miss loads it normally.
+                    refreshAheadFailures.increment();
+                } finally {
+                    if (lockToken != null) {
+                        manager.unlock(name, localKey, lockToken);
+                    }
+                    refreshing.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(localKey);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private record Freshness(long computeMillis, long expiresAt) {
+
+        private boolean shouldRefresh(long now) {
+            double headStart = -computeMillis * REFRESH_BETA * Math.log(ThreadLocalRandom.current().nextDouble());
+            return now + headStart >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.beaver_bargains.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.beaver_bargains.config.LocalCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wraps the Redis cache manager so every cache gets a local Caffeine tier,
+ * sized per cache from {@link LocalCacheProperties}. Local invalidations are
+ * exchanged between instances over a Redis pub/sub channel.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    static final Duration LOCK_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+    private static final String LOCK_PREFIX = "cache:lock:";
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final CacheManager remoteCacheManager;
+    private final LocalCacheProperties localCacheProperties;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheDependencyTracker dependencyTracker;
+    private final Duration ttl;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate refreshTransaction;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "cache-refresh-ahead");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, LocalCacheProperties localCacheProperties,
+            StringRedisTemplate redisTemplate, CacheDependencyTracker dependencyTracker, Duration ttl,
+            MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localCacheProperties = localCacheProperties;
+        this.redisTemplate = redisTemplate;
+        this.dependencyTracker = dependencyTracker;
+        this.ttl = ttl;
+        this.meterRegistry = meterRegistry;
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3 || instanceId.equals(parts[1])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[0])) {
+            cache.clearLocal();
+        } else if (EVICT.equals(parts[0]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    /**
+     * Evicts every cached entry that depends on one of the given dependency
+     * keys (see {@link CacheDependencyTracker}) and returns how many entries
+     * were evicted per cache.
+     */
+    public Map<String, Integer> evictDependents(Collection<String> dependencies) {
+        Map<String, Integer> evicted = new TreeMap<>();
+        for (CacheDependencyTracker.Dependent dependent : dependencyTracker.takeDependents(dependencies)) {
+            getCache(dependent.cacheName()).evict(dependent.key());
+            evicted.merge(dependent.cacheName(), 1, Integer::sum);
+        }
+        return evicted;
+    }
+
+    void recordDependencies(String cacheName, String key, Object value) {
+        dependencyTracker.record(cacheName, key, value);
+    }
+
+    long dependencyGeneration() {
+        return dependencyTracker.generation();
+    }
+
+    boolean dependenciesChangedSince(Object value, long generation) {
+        return dependencyTracker.changedSince(value, generation);
+    }
+
+    Duration getTtl() {
+        return ttl;
+    }
+
+    Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    TransactionTemplate getRefreshTransaction() {
+        return refreshTransaction;
+    }
+
+    Counter loadCounter(String cacheName, String result) {
+        return Counter.builder("cache.loads").tag("cache", cacheName).tag("result", result)
+                .description("Cache loads by outcome; coalesced loads waited on another caller's load")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes the cross-instance load lock for a key. Returns the token to
+     * release it with, or null if another instance holds it. When Redis is
+     * unreachable the lock is treated as taken so loading still proceeds.
+     */
+    String tryLock(String cacheName, String key) {
+        String token = instanceId + ":" + UUID.randomUUID();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, LOCK_TIMEOUT);
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (DataAccessException e) {
+            return token;
+        }
+    }
+
+    void unlock(String cacheName, String key, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey(cacheName, key)), token);
+        } catch (DataAccessException e) {
+            // The lock expires on its own.
+        }
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return LOCK_PREFIX + cacheName + ":" + key;
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(EVICT + "|" + instanceId + "|" + cacheName + "|" + key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(CLEAR + "|" + instanceId + "|" + cacheName);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (DataAccessException e) {
+            // Local copies on other instances still expire on their own TTL.
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No remote cache named " + name);
+        }
+        return new TwoTierCache(name, Caffeine.from(localCacheProperties.specFor(name)).build(), remote, this);
+    }
+}
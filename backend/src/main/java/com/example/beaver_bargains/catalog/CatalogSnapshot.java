@@ -0,0 +1,193 @@
+package com.example.beaver_bargains.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.example.beaver_bargains.dto.ItemCursor;
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.User;
+
+/**
+ * Immutable, versioned copy of the whole catalog in feed order
+ * ({@code listingDate DESC, id DESC}). Mutations return a new snapshot, so
+ * readers can iterate one without locking while it is being replaced.
+ * Items held here are detached copies and must not be modified.
+ */
+public final class CatalogSnapshot {
+
+    static final Comparator<Item> FEED_ORDER = Comparator
+            .comparing(Item::getListingDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Item::getId, Comparator.reverseOrder());
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, new Item[0]);
+
+    private final long version;
+    private final Item[] items;
+
+    private CatalogSnapshot(long version, Item[] items) {
+        this.version = version;
+        this.items = items;
+    }
+
+    static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    static CatalogSnapshot of(long version, Collection<Item> items) {
+        Item[] sorted = items.toArray(new Item[0]);
+        Arrays.sort(sorted, FEED_ORDER);
+        return new CatalogSnapshot(version, sorted);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Returns a snapshot with {@code item} inserted at its feed position,
+     * replacing any previous copy with the same id.
+     */
+    CatalogSnapshot with(Item item) {
+        int existing = indexOf(item.getId());
+        Item[] base = existing < 0 ? items : remove(items, existing);
+        int insertion = Arrays.binarySearch(base, item, FEED_ORDER);
+        if (insertion < 0) {
+            insertion = -insertion - 1;
+        }
+        Item[] updated = new Item[base.length + 1];
+        System.arraycopy(base, 0, updated, 0, insertion);
+        updated[insertion] = item;
+        System.arraycopy(base, insertion, updated, insertion + 1, base.length - insertion);
+        return new CatalogSnapshot(version + 1, updated);
+    }
+
+    CatalogSnapshot without(Long itemId) {
+        int existing = indexOf(itemId);
+        return existing < 0 ? this : new CatalogSnapshot(version + 1, remove(items, existing));
+    }
+
+    /**
+     * Returns a snapshot whose items point at the given copy of their seller.
+     */
+    CatalogSnapshot withSeller(User seller) {
+        Item[] updated = null;
+        for (int i = 0; i < items.length; i++) {
+            User current = items[i].getSeller();
+            if (current != null && seller.getId().equals(current.getId())) {
+                if (updated == null) {
+                    updated = items.clone();
+                }
+                updated[i] = MarketplaceCatalog.copyOf(items[i], seller);
+            }
+        }
+        return updated == null ? this : new CatalogSnapshot(version + 1, updated);
+    }
+
+    /**
+     * Lazily filtered view over the snapshot in feed order.
+     */
+    public Iterable<Item> view(Predicate<Item> filter) {
+        return () -> new FilteringIterator(0, filter);
+    }
+
+    public List<Item> list(Predicate<Item> filter) {
+        List<Item> result = new ArrayList<>();
+        for (Item item : view(filter)) {
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} matching items that come after
+     * {@code cursor} in feed order, or from the start when it is null.
+     */
+    public List<Item> page(Predicate<Item> filter, ItemCursor cursor, int limit) {
+        int start = 0;
+        if (cursor != null) {
+            Item probe = new Item();
+            probe.setListingDate(cursor.getListingDate());
+            probe.setId(cursor.getId());
+            int position = Arrays.binarySearch(items, probe, FEED_ORDER);
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+        List<Item> page = new ArrayList<>(Math.min(limit, items.length));
+        FilteringIterator iterator = new FilteringIterator(start, filter);
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Items another user may see: not their own listings, optionally only
+     * active ones, and carrying at least one of {@code tags} when given.
+     */
+    public static Predicate<Item> visibleTo(Long viewerId, boolean activeOnly, Collection<String> tags) {
+        Set<String> tagFilter = tags == null || tags.isEmpty() ? null : new HashSet<>(tags);
+        return item -> (!activeOnly || item.isActive())
+                && (viewerId == null || item.getSeller() == null || !viewerId.equals(item.getSeller().getId()))
+                && (tagFilter == null || (item.getTags() != null && !Collections.disjoint(tagFilter, item.getTags())));
+    }
+
+    private int indexOf(Long itemId) {
+        for (int i = 0; i < items.length; i++) {
+            if (items[i].getId().equals(itemId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Item[] remove(Item[] source, int index) {
+        Item[] result = new Item[source.length - 1];
+        System.arraycopy(source, 0, result, 0, index);
+        System.arraycopy(source, index + 1, result, index, source.length - index - 1);
+        return result;
+    }
+
+    private class FilteringIterator implements Iterator<Item> {
+        private final Predicate<Item> filter;
+        private int position;
+        private Item next;
+
+        private FilteringIterator(int start, Predicate<Item> filter) {
+            this.position = start;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && position < items.length) {
+                Item candidate = items[position++];
+                if (filter.test(candidate)) {
+                    next = candidate;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Item result = next;
+            next = null;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.beaver_bargains.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.repository.ItemRepository;
+import com.example.beaver_bargains.repository.UserRepository;
+import com.example.beaver_bargains.service.ItemChangedEvent;
+import com.example.beaver_bargains.service.UserChangedEvent;
+
+/**
+ * Holds the current {@link CatalogSnapshot}, rebuilt at startup and
+ * periodically, and patched item by item in between. Changes made on this
+ * instance are announced on a Redis channel so other instances reload the
+ * same rows.
+ */
+@Component
+public class MarketplaceCatalog implements MessageListener {
+
+    public static final String CHANGE_CHANNEL = "catalog:changes";
+
+    private static final String ITEM = "item";
+    private static final String SELLER = "seller";
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.empty();
+    private Set<Long> itemsChangedDuringRebuild;
+    private Set<Long> sellersChangedDuringRebuild;
+    private volatile boolean ready;
+
+    public MarketplaceCatalog(ItemRepository itemRepository, UserRepository userRepository,
+            StringRedisTemplate redisTemplate, PlatformTransactionManager transactionManager,
+            RedisMessageListenerContainer listenerContainer) {
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+    }
+
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces the snapshot with every item in the database. Runs at startup
+     * and then on a fixed delay, so an instance that missed a change message
+     * is stale for at most one interval. Items and sellers reloaded while the
+     * rebuild runs are reloaded again afterwards, since the rebuild may have
+     * read them before the change.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.catalog.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.catalog.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (this) {
+            itemsChangedDuringRebuild = new HashSet<>();
+            sellersChangedDuringRebuild = new HashSet<>();
+        }
+        Set<Long> changedItems;
+        Set<Long> changedSellers;
+        try {
+            List<Item> copies = transactionTemplate.execute(status -> {
+                List<Item> items = itemRepository.findAll();
+                List<Item> detached = new ArrayList<>(items.size());
+                Map<Long, User> sellers = new HashMap<>();
+                for (Item item : items) {
+                    User seller = item.getSeller() == null ? null
+                            : sellers.computeIfAbsent(item.getSeller().getId(), id -> copyOf(item.getSeller()));
+                    detached.add(copyOf(item, seller));
+                }
+                return detached;
+            });
+            synchronized (this) {
+                snapshot = CatalogSnapshot.of(snapshot.getVersion() + 1, copies);
+            }
+        } finally {
+            synchronized (this) {
+                changedItems = itemsChangedDuringRebuild;
+                changedSellers = sellersChangedDuringRebuild;
+                itemsChangedDuringRebuild = null;
+                sellersChangedDuringRebuild = null;
+            }
+        }
+        changedItems.forEach(this::reloadItem);
+        changedSellers.forEach(this::reloadSeller);
+        ready = true;
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        reloadItem(event.getItemId());
+        publish(ITEM, event.getItemId());
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        reloadSeller(event.getUserId());
+        publish(SELLER, event.getUserId());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = remoteChange(message);
+        if (parts == null) {
+            return;
+        }
+        Long id = Long.valueOf(parts[2]);
+        if (ITEM.equals(parts[1])) {
+            reloadItem(id);
+        } else if (SELLER.equals(parts[1])) {
+            reloadSeller(id);
+        }
+    }
+
+    /**
+     * Returns the id of the item a {@link #CHANGE_CHANNEL} message announces,
+     * or null if it is about something else or was sent by this instance.
+     */
+    public Long remoteItemId(Message message) {
+        String[] parts = remoteChange(message);
+        return parts != null && ITEM.equals(parts[1]) ? Long.valueOf(parts[2]) : null;
+    }
+
+    private String[] remoteChange(Message message) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|");
+        return parts.length != 3 || instanceId.equals(parts[0]) ? null : parts;
+    }
+
+    private void reloadItem(Long itemId) {
+        synchronized (this) {
+            if (itemsChangedDuringRebuild != null) {
+                itemsChangedDuringRebuild.add(itemId);
+            }
+        }
+        Optional<Item> copy = transactionTemplate.execute(
+                status -> itemRepository.findById(itemId).map(item -> copyOf(item, copyOf(item.getSeller()))));
+        update(current -> copy.map(current::with).orElseGet(() -> current.without(itemId)));
+    }
+
+    private void reloadSeller(Long sellerId) {
+        synchronized (this) {
+            if (sellersChangedDuringRebuild != null) {
+                sellersChangedDuringRebuild.add(sellerId);
+            }
+        }
+        Optional<User> copy = transactionTemplate.execute(
+                status -> userRepository.findById(sellerId).map(MarketplaceCatalog::copyOf));
+        copy.ifPresent(seller -> update(current -> current.withSeller(seller)));
+    }
+
+    private synchronized void update(UnaryOperator<CatalogSnapshot> change) {
+        snapshot = change.apply(snapshot);
+    }
+
+    private void publish(String kind, Long id) {
+        try {
+            redisTemplate.convertAndSend(CHANGE_CHANNEL, instanceId + "|" + kind + "|" + id);
+        } catch (DataAccessException e) {
+            // Other instances catch up on their next scheduled rebuild.
+        }
+    }
+
+    static Item copyOf(Item item, User seller) {
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setTitle(item.getTitle());
+        copy.setDescription(item.getDescription());
+        copy.setPrice(item.getPrice());
+        copy.setListingDate(item.getListingDate());
+        copy.setPurchaseDate(item.getPurchaseDate());
+        copy.setImageUrls(item.getImageUrls() == null ? null : List.copyOf(item.getImageUrls()));
+        copy.setTags(item.getTags() == null ? null : new HashSet<>(item.getTags()));
+        copy.setStatus(item.getStatus());
+        copy.setSeller(seller);
+        copy.setBuyer(copyOf(item.getBuyer()));
+        return copy;
+    }
+
+    private static User copyOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setEmail(user.getEmail());
+        copy.setBio(user.getBio());
+        copy.setProfileImageUrl(user.getProfileImageUrl());
+        return copy;
+    }
+}
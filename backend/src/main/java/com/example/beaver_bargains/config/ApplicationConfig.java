@@ -13,6 +13,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.example.beaver_bargains.repository.UserRepository;
 import com.example.beaver_bargains.security.CustomUserDetails;
+import com.example.beaver_bargains.service.UserIdentityMap;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,10 +22,12 @@ import lombok.RequiredArgsConstructor;
 public class ApplicationConfig {
 
     private final UserRepository repository;
+    private final UserIdentityMap userIdentityMap;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByEmail(username).map(CustomUserDetails::new)
+        return username -> userIdentityMap.findByEmail(username, () -> repository.findByEmail(username))
+                .map(CustomUserDetails::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
@@ -0,0 +1,25 @@
+package com.example.beaver_bargains.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Caffeine specs for the in-process cache tier, e.g.
+ * {@code app.cache.local.specs.unreadMessageCount=maximumSize=10000,expireAfterWrite=30s}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache.local")
+public class LocalCacheProperties {
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=5m";
+    private Map<String, String> specs = new HashMap<>();
+
+    public String specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaultSpec);
+    }
+}
@@ -3,7 +3,7 @@ package com.example.beaver_bargains.config;
 import java.time.Duration;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,12 +12,23 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.beaver_bargains.cache.CacheDependencyTracker;
+import com.example.beaver_bargains.cache.CompactCacheSerializer;
+import com.example.beaver_bargains.cache.TwoTierCacheManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(LocalCacheProperties.class)
 public class RedisConfig {
 
     @Value("${spring.data.redis.host}")
@@ -26,6 +37,12 @@ public class RedisConfig {
     @Value("${spring.data.redis.port}")
     private int redisPort;
 
+    @Value("${app.cache.compact.caches:}")
+    private String[] compactCaches;
+
+    @Value("${app.cache.compact.compression-threshold:1024}")
+    private int compressionThreshold;
+
     @Bean
     public LettuceConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(redisHost, redisPort);
@@ -43,15 +60,41 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(LettuceConnectionFactory redisConnectionFactory) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(LettuceConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+    @Bean
+    public TwoTierCacheManager cacheManager(LettuceConnectionFactory redisConnectionFactory,
+            RedisMessageListenerContainer listenerContainer, StringRedisTemplate stringRedisTemplate,
+            LocalCacheProperties localCacheProperties, MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager) {
+        Duration entryTtl = Duration.ofMinutes(60);
         RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(60))
+            .entryTtl(entryTtl)
             .disableCachingNullValues()
             .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
             .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
 
-        return RedisCacheManager.builder(redisConnectionFactory)
-            .cacheDefaults(cacheConfiguration)
-            .build();
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(redisConnectionFactory)
+            .cacheDefaults(cacheConfiguration);
+        RedisCacheConfiguration compactConfiguration = cacheConfiguration.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(new CompactCacheSerializer(compressionThreshold)));
+        for (String cacheName : compactCaches) {
+            if (!cacheName.isBlank()) {
+                builder.withCacheConfiguration(cacheName.trim(), compactConfiguration);
+            }
+        }
+
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+
+        CacheDependencyTracker dependencyTracker = new CacheDependencyTracker(stringRedisTemplate, entryTtl);
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager, localCacheProperties,
+                stringRedisTemplate, dependencyTracker, entryTtl, meterRegistry, transactionManager);
+        listenerContainer.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        return cacheManager;
     }
 }
\ No newline at end of file
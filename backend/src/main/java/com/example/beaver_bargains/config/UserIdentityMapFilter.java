@@ -0,0 +1,37 @@
+package com.example.beaver_bargains.config;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.beaver_bargains.service.UserIdentityMap;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class UserIdentityMapFilter extends OncePerRequestFilter {
+
+    private final UserIdentityMap userIdentityMap;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean started = userIdentityMap.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (started) {
+                userIdentityMap.end();
+            }
+        }
+    }
+}
@@ -14,6 +14,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.beaver_bargains.dto.FavoriteBatchDto;
+import com.example.beaver_bargains.dto.ItemCard;
 import com.example.beaver_bargains.service.FavoriteService;
 
 @RestController
@@ -31,6 +33,14 @@ public class FavoritesController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Long>> updateFavorites(@RequestBody FavoriteBatchDto batch,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        List<Long> favorites = favoriteService.updateFavorites(userEmail, batch.getAdd(), batch.getRemove());
+        return ResponseEntity.ok(favorites);
+    }
+
     @GetMapping
     public ResponseEntity<List<Long>> getFavorites(Authentication authentication) {
         String userEmail = authentication.getName();
@@ -38,6 +48,12 @@ public class FavoritesController {
         return ResponseEntity.ok(favorites);
     }
 
+    @GetMapping("/cards")
+    public ResponseEntity<List<ItemCard>> getFavoriteCards(Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(favoriteService.getFavoriteItemCards(userEmail));
+    }
+
     @DeleteMapping("/{itemId}")
     public ResponseEntity<?> removeFavorite(@PathVariable Long itemId, Authentication authentication) {
         String userEmail = authentication.getName();
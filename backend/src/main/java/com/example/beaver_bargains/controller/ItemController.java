@@ -19,8 +19,11 @@ import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.beaver_bargains.dto.ItemCard;
 import com.example.beaver_bargains.dto.ItemDto;
+import com.example.beaver_bargains.dto.ItemPageDto;
 import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.service.FavoriteService;
 import com.example.beaver_bargains.service.ItemService;
 
 @RestController
@@ -30,6 +33,9 @@ public class ItemController {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private FavoriteService favoriteService;
+
     @PostMapping
     public ResponseEntity<Item> createItem(@RequestPart("item") ItemDto itemDto,
             @RequestPart("images") List<MultipartFile> images, Authentication authentication) throws IOException {
@@ -45,6 +51,17 @@ public class ItemController {
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<ItemPageDto> getItemsPage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int size, Authentication authentication) {
+        String userEmail = authentication.getName();
+        try {
+            return ResponseEntity.ok(itemService.getItemsPageExceptUser(userEmail, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/user")
     public ResponseEntity<List<Item>> getItemsByUser(Authentication authentication) {
         String userEmail = authentication.getName();
@@ -75,14 +92,43 @@ public class ItemController {
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping("/marketplace/cards")
+    public ResponseEntity<List<ItemCard>> getActiveItemCards(Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(
+                favoriteService.markFavorites(userEmail, itemService.getActiveItemCardsExceptUser(userEmail)));
+    }
+
+    @GetMapping("/marketplace/page")
+    public ResponseEntity<ItemPageDto> getActiveItemsPage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int size, @RequestParam(required = false) List<String> tags,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        try {
+            return ResponseEntity.ok(itemService.getActiveItemsPageExceptUser(userEmail, cursor, size, tags));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<Item>> searchItems(@RequestParam(required = false) String query,
-            @RequestParam(required = false) List<String> tags, Authentication authentication) {
+            @RequestParam(required = false) List<String> tags, @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
         String userEmail = authentication.getName();
-        List<Item> items = itemService.searchItems(query, tags, userEmail);
+        List<Item> items = itemService.searchItems(query, tags, userEmail, limit);
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping("/search/cards")
+    public ResponseEntity<List<ItemCard>> searchItemCards(@RequestParam(required = false) String query,
+            @RequestParam(required = false) List<String> tags, @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(
+                favoriteService.markFavorites(userEmail, itemService.searchItemCards(query, tags, userEmail, limit)));
+    }
+
     @GetMapping("/tags")
     public ResponseEntity<Set<String>> getAllTags(Authentication authentication) {
         String userEmail = authentication.getName();
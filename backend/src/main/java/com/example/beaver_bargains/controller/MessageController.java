@@ -1,6 +1,7 @@
 package com.example.beaver_bargains.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -10,13 +11,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.beaver_bargains.dto.ConversationDto;
+import com.example.beaver_bargains.dto.InboxPageDto;
 import com.example.beaver_bargains.dto.MessageDto;
+import com.example.beaver_bargains.dto.MessagePageDto;
+import com.example.beaver_bargains.dto.ReadReceiptDto;
 import com.example.beaver_bargains.dto.UserDto;
 import com.example.beaver_bargains.entity.Conversation;
 import com.example.beaver_bargains.entity.Message;
+import com.example.beaver_bargains.service.InboxService;
 import com.example.beaver_bargains.service.MessageService;
 import com.example.beaver_bargains.service.NotificationService;
 import com.example.beaver_bargains.service.UserService;
@@ -34,6 +40,9 @@ public class MessageController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private InboxService inboxService;
+
     @PostMapping
     public ResponseEntity<Conversation> getOrCreateConversation(@RequestBody ConversationDto conversationDto,
             Authentication authentication) {
@@ -50,6 +59,17 @@ public class MessageController {
         return ResponseEntity.ok(conversations);
     }
 
+    @GetMapping("/inbox")
+    public ResponseEntity<InboxPageDto> getInbox(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size, Authentication authentication) {
+        Long userId = userService.getUserId(authentication.getName());
+        try {
+            return ResponseEntity.ok(inboxService.getInbox(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/conversation-users")
     public ResponseEntity<List<UserDto>> getConversationUsers(Authentication authentication) {
         String userEmail = authentication.getName();
@@ -66,17 +86,46 @@ public class MessageController {
     }
 
     @GetMapping("/conversations/{conversationId}")
-    public ResponseEntity<List<Message>> getConversationMessages(@PathVariable Long conversationId) {
+    public ResponseEntity<List<Message>> getConversationMessages(@PathVariable Long conversationId,
+            Authentication authentication) {
+        if (!messageService.isParticipant(conversationId, authentication.getName())) {
+            return ResponseEntity.notFound().build();
+        }
         List<Message> messages = messageService.getConversationMessages(conversationId);
         return ResponseEntity.ok(messages);
     }
 
+    /**
+     * Newest page by default, older pages with {@code before}, and only the
+     * messages after {@code since} for clients catching up. Conversations the
+     * caller is not part of answer 404.
+     */
+    @GetMapping("/conversations/{conversationId}/history")
+    public ResponseEntity<MessagePageDto> getMessageHistory(@PathVariable Long conversationId,
+            @RequestParam(required = false) Long before, @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "30") int limit, Authentication authentication) {
+        if (!messageService.isParticipant(conversationId, authentication.getName())) {
+            return ResponseEntity.notFound().build();
+        }
+        if (since != null) {
+            return ResponseEntity.ok(new MessagePageDto(messageService.getMessagesSince(conversationId, since, limit),
+                    null));
+        }
+        return ResponseEntity.ok(messageService.getMessageHistory(conversationId, before, limit));
+    }
+
     @GetMapping("/unread/count")
     public ResponseEntity<Long> getUnreadMessageCount(Authentication authentication) {
         Long userId = userService.getUserId(authentication.getName());
         return ResponseEntity.ok(notificationService.getUnreadMessageCount(userId));
     }
 
+    @GetMapping("/unread/conversations")
+    public ResponseEntity<Map<Long, Long>> getUnreadCountsByConversation(Authentication authentication) {
+        Long userId = userService.getUserId(authentication.getName());
+        return ResponseEntity.ok(notificationService.getUnreadCountsByConversation(userId));
+    }
+
     @GetMapping("/unread")
     public ResponseEntity<List<Message>> getUnreadMessages(Authentication authentication) {
         Long userId = userService.getUserId(authentication.getName());
@@ -84,16 +133,24 @@ public class MessageController {
     }
 
     @PostMapping("/{messageId}/read")
-    public ResponseEntity<Void> markMessageAsRead(@PathVariable Long messageId) {
-        notificationService.markMessageAsRead(messageId);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<Integer> markMessageAsRead(@PathVariable Long messageId, Authentication authentication) {
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(notificationService.markMessageAsRead(messageId, userEmail));
     }
 
     @PostMapping("/conversations/{conversationId}/read")
-    public ResponseEntity<Void> markConversationAsRead(@PathVariable Long conversationId,
-            Authentication authentication) {
+    public ResponseEntity<Integer> markConversationAsRead(@PathVariable Long conversationId,
+            @RequestBody(required = false) ReadReceiptDto receipt, Authentication authentication) {
         String userEmail = authentication.getName();
-        notificationService.markConversationAsRead(conversationId, userEmail);
-        return ResponseEntity.ok().build();
+        int updated;
+        if (receipt != null && receipt.getMessageIds() != null) {
+            updated = notificationService.markMessagesAsRead(conversationId, receipt.getMessageIds(), userEmail);
+        } else if (receipt != null && receipt.getUpToMessageId() != null) {
+            updated = notificationService.markConversationReadUpTo(conversationId, receipt.getUpToMessageId(),
+                    userEmail);
+        } else {
+            updated = notificationService.markConversationAsRead(conversationId, userEmail);
+        }
+        return ResponseEntity.ok(updated);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.example.beaver_bargains.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class FavoriteBatchDto {
+    private List<Long> add;
+    private List<Long> remove;
+}
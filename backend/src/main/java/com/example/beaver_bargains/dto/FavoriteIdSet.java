@@ -0,0 +1,131 @@
+package com.example.beaver_bargains.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Immutable set of a user's favorite item ids, kept as a sorted
+ * {@code long[]} with an open-addressing index beside it, so
+ * {@link #contains(long)} is a constant-time lookup that neither boxes nor
+ * allocates. Item ids are positive, so 0 marks an empty slot in the index.
+ */
+public final class FavoriteIdSet {
+
+    private static final FavoriteIdSet EMPTY = new FavoriteIdSet(new long[0]);
+
+    private final long[] ids;
+    private final long[] table;
+    private final int mask;
+
+    private FavoriteIdSet(long[] sortedIds) {
+        this.ids = sortedIds;
+        int capacity = Integer.highestOneBit(Math.max(2, sortedIds.length * 2 - 1)) << 1;
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+        for (long id : sortedIds) {
+            int slot = slot(id);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+
+    public static FavoriteIdSet empty() {
+        return EMPTY;
+    }
+
+    @JsonCreator
+    public static FavoriteIdSet of(@JsonProperty("ids") long[] ids) {
+        if (ids == null || ids.length == 0) {
+            return EMPTY;
+        }
+        long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (long id : sorted) {
+            if (id > 0 && (distinct == 0 || sorted[distinct - 1] != id)) {
+                sorted[distinct++] = id;
+            }
+        }
+        return new FavoriteIdSet(Arrays.copyOf(sorted, distinct));
+    }
+
+    public static FavoriteIdSet of(Collection<Long> ids) {
+        long[] values = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            values[i++] = id;
+        }
+        return of(values);
+    }
+
+    public boolean contains(long itemId) {
+        if (itemId <= 0) {
+            return false;
+        }
+        int slot = slot(itemId);
+        long current;
+        while ((current = table[slot]) != 0) {
+            if (current == itemId) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the {@code index}-th smallest id.
+     */
+    public long get(int index) {
+        return ids[index];
+    }
+
+    @JsonProperty("ids")
+    public long[] toArray() {
+        return ids.clone();
+    }
+
+    public List<Long> toList() {
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns a set with {@code added} included and {@code removed} left out.
+     */
+    public FavoriteIdSet with(Collection<Long> added, Collection<Long> removed) {
+        long[] merged = Arrays.copyOf(ids, ids.length + added.size());
+        int size = 0;
+        for (long id : ids) {
+            if (!removed.contains(id)) {
+                merged[size++] = id;
+            }
+        }
+        for (Long id : added) {
+            if (!removed.contains(id)) {
+                merged[size++] = id;
+            }
+        }
+        return of(Arrays.copyOf(merged, size));
+    }
+
+    private int slot(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.beaver_bargains.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.example.beaver_bargains.entity.ConversationInbox;
+
+import lombok.Getter;
+
+/**
+ * Opaque keyset position in an inbox ordered by
+ * {@code (lastMessageAt DESC, conversationId DESC)}.
+ */
+@Getter
+public class InboxCursor {
+    private final Instant lastMessageAt;
+    private final Long conversationId;
+
+    public InboxCursor(Instant lastMessageAt, Long conversationId) {
+        this.lastMessageAt = lastMessageAt;
+        this.conversationId = conversationId;
+    }
+
+    public static InboxCursor of(ConversationInbox entry) {
+        return new InboxCursor(entry.getLastMessageAt(), entry.getConversationId());
+    }
+
+    public static InboxCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new InboxCursor(Instant.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = lastMessageAt + "|" + conversationId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
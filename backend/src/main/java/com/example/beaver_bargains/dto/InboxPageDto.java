@@ -0,0 +1,22 @@
+package com.example.beaver_bargains.dto;
+
+import java.util.List;
+
+import com.example.beaver_bargains.entity.ConversationInbox;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class InboxPageDto {
+    private List<ConversationInbox> conversations;
+    private String nextCursor;
+
+    public InboxPageDto(List<ConversationInbox> conversations, String nextCursor) {
+        this.conversations = conversations;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.beaver_bargains.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import com.example.beaver_bargains.entity.ItemStatus;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * What a listing card in the marketplace, search results or favorites needs,
+ * selected column by column instead of serializing the {@code Item} entity,
+ * so building one never touches a lazy association or element collection.
+ * Tags are filled in by a second query over the same ids, and the favorite
+ * flag from the viewer's cached favorite id set.
+ */
+@Getter
+public class ItemCard {
+    private final Long id;
+    private final String title;
+    private final BigDecimal price;
+    private final LocalDateTime listingDate;
+    private final ItemStatus status;
+    private final String imageUrl;
+    private final Long sellerId;
+    private final String sellerName;
+
+    @Setter
+    private Set<String> tags;
+
+    @Setter
+    private boolean favorite;
+
+    public ItemCard(Long id, String title, BigDecimal price, LocalDateTime listingDate, ItemStatus status,
+            String imageUrl, Long sellerId, String sellerFirstName, String sellerLastName) {
+        this.id = id;
+        this.title = title;
+        this.price = price;
+        this.listingDate = listingDate;
+        this.status = status;
+        this.imageUrl = imageUrl;
+        this.sellerId = sellerId;
+        this.sellerName = sellerLastName == null ? sellerFirstName : sellerFirstName + " " + sellerLastName;
+    }
+}
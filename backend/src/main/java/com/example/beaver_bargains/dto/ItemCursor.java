@@ -0,0 +1,47 @@
+package com.example.beaver_bargains.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.example.beaver_bargains.entity.Item;
+
+import lombok.Getter;
+
+/**
+ * Opaque keyset position in a feed ordered by {@code (listingDate DESC, id DESC)}.
+ */
+@Getter
+public class ItemCursor {
+    private final LocalDateTime listingDate;
+    private final Long id;
+
+    public ItemCursor(LocalDateTime listingDate, Long id) {
+        this.listingDate = listingDate;
+        this.id = id;
+    }
+
+    public static ItemCursor of(Item item) {
+        return new ItemCursor(item.getListingDate(), item.getId());
+    }
+
+    public static ItemCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new ItemCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = listingDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
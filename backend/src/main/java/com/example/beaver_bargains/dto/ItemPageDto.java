@@ -0,0 +1,22 @@
+package com.example.beaver_bargains.dto;
+
+import java.util.List;
+
+import com.example.beaver_bargains.entity.Item;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ItemPageDto {
+    private List<Item> items;
+    private String nextCursor;
+
+    public ItemPageDto(List<Item> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
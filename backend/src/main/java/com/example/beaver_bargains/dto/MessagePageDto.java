@@ -0,0 +1,25 @@
+package com.example.beaver_bargains.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A slice of conversation history in ascending id order. {@code nextBefore}
+ * is the id to pass as {@code before} for the next older page, or null when
+ * the start of the conversation has been reached.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class MessagePageDto {
+    private List<MessageView> messages;
+    private Long nextBefore;
+
+    public MessagePageDto(List<MessageView> messages, Long nextBefore) {
+        this.messages = messages;
+        this.nextBefore = nextBefore;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.beaver_bargains.dto;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A message in a conversation history, carrying participant ids instead of
+ * the sender, receiver and conversation entities.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class MessageView {
+    private Long id;
+    private Long conversationId;
+    private Long senderId;
+    private Long receiverId;
+    private String content;
+    private Instant timestamp;
+    private boolean read;
+
+    public MessageView(Long id, Long conversationId, Long senderId, Long receiverId, String content,
+            Instant timestamp, boolean read) {
+        this.id = id;
+        this.conversationId = conversationId;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.content = content;
+        this.timestamp = timestamp;
+        this.read = read;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.beaver_bargains.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Acknowledges messages of one conversation: either the listed ids, or
+ * everything up to and including {@code upToMessageId}. An empty receipt
+ * acknowledges the whole conversation.
+ */
+@Getter
+@Setter
+public class ReadReceiptDto {
+    private List<Long> messageIds;
+    private Long upToMessageId;
+}
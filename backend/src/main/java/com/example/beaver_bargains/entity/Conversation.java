@@ -2,6 +2,8 @@ package com.example.beaver_bargains.entity;
 
 import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -9,8 +11,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
+/**
+ * A conversation between two users, stored with {@code user1.id <= user2.id}
+ * so each pair of users has one row. Each participant's read state is a
+ * watermark: the messages they received with an id up to it are read.
+ */
 @Entity
+@Table(name = "conversation", uniqueConstraints = @UniqueConstraint(name = "uk_conversation_participants",
+        columnNames = { "user1_id", "user2_id" }))
 public class Conversation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +38,14 @@ public class Conversation {
     @Column(nullable = false)
     private Instant lastMessageTimestamp;
 
+    @JsonIgnore
+    @Column(name = "user1_last_read_message_id", nullable = false)
+    private long user1LastReadMessageId;
+
+    @JsonIgnore
+    @Column(name = "user2_last_read_message_id", nullable = false)
+    private long user2LastReadMessageId;
+
     public Long getId() {
         return id;
     }
@@ -58,4 +77,27 @@ public class Conversation {
     public void setLastMessageTimestamp(Instant lastMessageTimestamp) {
         this.lastMessageTimestamp = lastMessageTimestamp;
     }
+
+    public long getUser1LastReadMessageId() {
+        return user1LastReadMessageId;
+    }
+
+    public void setUser1LastReadMessageId(long user1LastReadMessageId) {
+        this.user1LastReadMessageId = user1LastReadMessageId;
+    }
+
+    public long getUser2LastReadMessageId() {
+        return user2LastReadMessageId;
+    }
+
+    public void setUser2LastReadMessageId(long user2LastReadMessageId) {
+        this.user2LastReadMessageId = user2LastReadMessageId;
+    }
+
+    /**
+     * The read watermark of the given participant.
+     */
+    public long getLastReadMessageId(Long userId) {
+        return user1 != null && user1.getId().equals(userId) ? user1LastReadMessageId : user2LastReadMessageId;
+    }
 }
\ No newline at end of file
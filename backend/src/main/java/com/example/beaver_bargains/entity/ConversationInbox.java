@@ -0,0 +1,53 @@
+package com.example.beaver_bargains.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One user's inbox entry for a conversation: the other participant's display
+ * fields, a preview of the last message and the user's unread count. Kept
+ * up to date by {@code InboxService} in the same transaction as the message
+ * it reflects.
+ */
+@Entity
+@Table(name = "conversation_inbox", uniqueConstraints = @UniqueConstraint(
+        name = "uk_conversation_inbox_user_conversation", columnNames = { "user_id", "conversation_id" }))
+@Getter
+@Setter
+public class ConversationInbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "counterpart_id", nullable = false)
+    private Long counterpartId;
+
+    private String counterpartFirstName;
+    private String counterpartLastName;
+    private String counterpartProfileImageUrl;
+
+    private Long lastMessageId;
+    private String lastMessagePreview;
+
+    @Column(nullable = false)
+    private Instant lastMessageAt;
+
+    @Column(nullable = false)
+    private int unreadCount;
+}
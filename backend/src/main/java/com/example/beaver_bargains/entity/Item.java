@@ -6,6 +6,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.CollectionTable;
@@ -19,6 +21,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OrderColumn;
 
 @Entity
 public class Item implements Serializable {
@@ -35,11 +38,14 @@ public class Item implements Serializable {
     private LocalDateTime purchaseDate;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "item_images", joinColumns = @JoinColumn(name = "item_id"))
     @Column(name = "image_url")
+    @OrderColumn(name = "image_order")
     private List<String> imageUrls;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "item_tags", joinColumns = @JoinColumn(name = "item_id"))
     @Column(name = "tag")
     private Set<String> tags;
@@ -9,6 +9,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Transient;
 
 @Entity
 public class Message {
@@ -34,7 +35,11 @@ public class Message {
     @Column(nullable = false)
     private Instant timestamp;
 
-    @Column(name = "is_read", nullable = false)
+    /**
+     * Derived from the receiver's read watermark on the conversation when
+     * the message is loaded for display; not stored per row.
+     */
+    @Transient
     private boolean isRead = false;
 
     public Message() {
@@ -0,0 +1,110 @@
+package com.example.beaver_bargains.messaging;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.beaver_bargains.entity.Message;
+import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.service.MessageSentEvent;
+import com.example.beaver_bargains.service.MessagesReadEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pushes new messages and unread-count deltas to the STOMP sessions of the
+ * users they concern. A user's sessions may be held by any instance, so each
+ * push goes out on a Redis channel and every instance (this one included)
+ * delivers it to the sessions it has.
+ */
+@Component
+public class MessagePushService {
+
+    public static final String PUSH_CHANNEL = "messages:push";
+
+    static final String MESSAGES_DESTINATION = "/queue/messages";
+    static final String UNREAD_DESTINATION = "/queue/unread";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public MessagePushService(SimpMessagingTemplate messagingTemplate, StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry, RedisMessageListenerContainer listenerContainer) {
+        this.messagingTemplate = messagingTemplate;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        listenerContainer.addMessageListener((message, pattern) -> receive(message.getBody()),
+                new ChannelTopic(PUSH_CHANNEL));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        Message message = event.getMessage();
+        User receiver = message.getReceiver();
+        push(receiver.getEmail(), MESSAGES_DESTINATION, message);
+        push(receiver.getEmail(), UNREAD_DESTINATION, unreadDelta(message.getConversation().getId(), 1));
+        push(message.getSender().getEmail(), MESSAGES_DESTINATION, message);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        if (event.getCount() > 0) {
+            push(event.getUserEmail(), UNREAD_DESTINATION, unreadDelta(event.getConversationId(), -event.getCount()));
+        }
+    }
+
+    private void receive(byte[] body) {
+        try {
+            JsonNode push = objectMapper.readTree(body);
+            messagingTemplate.convertAndSendToUser(push.get("user").asText(), push.get("destination").asText(),
+                    push.get("payload"));
+        } catch (IOException e) {
+            meterRegistry.counter("messages.push.dropped", "reason", "unreadable").increment();
+        }
+    }
+
+    private void push(String userEmail, String destination, Object payload) {
+        if (userEmail == null) {
+            return;
+        }
+        Map<String, Object> push = new LinkedHashMap<>();
+        push.put("user", userEmail);
+        push.put("destination", destination);
+        push.put("payload", payload);
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(push);
+        } catch (JsonProcessingException e) {
+            meterRegistry.counter("messages.push.dropped", "reason", "unserializable").increment();
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(PUSH_CHANNEL, body);
+        } catch (DataAccessException e) {
+            // Without Redis only sessions on this instance can be reached.
+            receive(body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, Object> unreadDelta(Long conversationId, int delta) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("conversationId", conversationId);
+        payload.put("delta", delta);
+        return payload;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.beaver_bargains.messaging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.beaver_bargains.dto.MessageView;
+import com.example.beaver_bargains.entity.Message;
+import com.example.beaver_bargains.service.MessageSentEvent;
+import com.example.beaver_bargains.service.MessagesReadEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The newest {@link #SIZE} messages of each open conversation, kept as a
+ * Redis sorted set {@code messages:tail:{conversationId}} scored by message
+ * id. New messages are added to an existing set instead of invalidating it,
+ * so an active thread is never reloaded in full. Seeding merges into the set
+ * rather than replacing it, so a message appended while a seed was in flight
+ * is not lost. Read receipts change messages already in the set, so those
+ * drop it instead.
+ */
+@Component
+public class MessageTailCache {
+
+    public static final int SIZE = 50;
+
+    static final String KEY_PREFIX = "messages:tail:";
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    /**
+     * Adds (id, view) pairs from ARGV[4..], replacing any entry with the same
+     * id, keeps the newest ARGV[2] and refreshes the TTL (ARGV[1]). Only
+     * creates the set when ARGV[3] is 1.
+     */
+    private static final RedisScript<Long> MERGE_SCRIPT = new DefaultRedisScript<>(
+            "if ARGV[3] ~= '1' and redis.call('exists', KEYS[1]) == 0 then return 0 end "
+                    + "for i = 4, #ARGV, 2 do "
+                    + "redis.call('zremrangebyscore', KEYS[1], ARGV[i], ARGV[i]) "
+                    + "redis.call('zadd', KEYS[1], ARGV[i], ARGV[i + 1]) "
+                    + "end "
+                    + "redis.call('zremrangebyrank', KEYS[1], 0, -tonumber(ARGV[2]) - 1) "
+                    + "redis.call('expire', KEYS[1], ARGV[1]) "
+                    + "return redis.call('zcard', KEYS[1])",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public MessageTailCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the cached tail in ascending id order, or null when it is not
+     * cached. Conversations without messages are never cached.
+     */
+    public List<MessageView> get(Long conversationId) {
+        Set<String> entries;
+        try {
+            entries = redisTemplate.opsForZSet().range(key(conversationId), 0, -1);
+        } catch (DataAccessException e) {
+            return null;
+        }
+        if (entries == null || entries.isEmpty()) {
+            return null;
+        }
+        List<MessageView> tail = new ArrayList<>(entries.size());
+        try {
+            for (String entry : entries) {
+                tail.add(objectMapper.readValue(entry, MessageView.class));
+            }
+        } catch (JsonProcessingException e) {
+            evict(conversationId);
+            return null;
+        }
+        return tail;
+    }
+
+    /**
+     * Seeds the cached tail with {@code newestFirst}, the result of a
+     * newest-first query for at most {@link #SIZE} messages, merging with
+     * whatever was appended meanwhile.
+     */
+    public void put(Long conversationId, List<MessageView> newestFirst) {
+        merge(conversationId, newestFirst, true);
+    }
+
+    /**
+     * Adds messages to the cached tail if it exists.
+     */
+    public void addIfCached(Long conversationId, List<MessageView> messages) {
+        merge(conversationId, messages, false);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        Message message = event.getMessage();
+        MessageView view = new MessageView(message.getId(), message.getConversation().getId(),
+                message.getSender().getId(), message.getReceiver().getId(), message.getContent(),
+                message.getTimestamp(), message.getIsRead());
+        addIfCached(view.getConversationId(), Collections.singletonList(view));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        if (event.getCount() > 0) {
+            evict(event.getConversationId());
+        }
+    }
+
+    private void merge(Long conversationId, List<MessageView> messages, boolean create) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(2 * messages.size() + 3);
+        args.add(Long.toString(TTL.toSeconds()));
+        args.add(Integer.toString(SIZE));
+        args.add(create ? "1" : "0");
+        try {
+            for (MessageView message : messages) {
+                args.add(Long.toString(message.getId()));
+                args.add(objectMapper.writeValueAsString(message));
+            }
+            redisTemplate.execute(MERGE_SCRIPT, Collections.singletonList(key(conversationId)), args.toArray());
+        } catch (JsonProcessingException | DataAccessException e) {
+            // A tail missing a message would hide it from catch-up reads.
+            evict(conversationId);
+        }
+    }
+
+    private void evict(Long conversationId) {
+        try {
+            redisTemplate.delete(key(conversationId));
+        } catch (DataAccessException e) {
+            // Expires on its own.
+        }
+    }
+
+    private static String key(Long conversationId) {
+        return KEY_PREFIX + conversationId;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.beaver_bargains.messaging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.beaver_bargains.entity.Message;
+import com.example.beaver_bargains.repository.MessageRepository;
+import com.example.beaver_bargains.repository.MessageRepository.ConversationUnreadCount;
+import com.example.beaver_bargains.service.MessageSentEvent;
+import com.example.beaver_bargains.service.MessagesReadEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-user unread counters in a Redis hash {@code unread:{userId}} holding a
+ * {@code total} field and one field per conversation with unread messages.
+ * Counters are seeded from the {@code message} table on first read and then
+ * moved by HINCRBY as messages are sent and read. Deltas for a user without
+ * a seeded hash are dropped, since the next read seeds from the table anyway.
+ * Every delta also bumps {@code unread-version:{userId}}; a seed or recount
+ * is only written if that version did not move while the table was being
+ * counted, since the count may or may not include the delta. A scheduled
+ * job, run by one instance at a time, recounts the seeded hashes to repair
+ * any drift.
+ */
+@Component
+public class UnreadCounters {
+
+    static final String KEY_PREFIX = "unread:";
+    static final String VERSION_PREFIX = "unread-version:";
+    static final String RECONCILE_LOCK = "lock:unread-reconcile";
+    public static final String TOTAL = "total";
+
+    private static final Duration TTL = Duration.ofDays(1);
+
+    private static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) "
+                    + "redis.call('expire', KEYS[2], ARGV[3]) "
+                    + "if redis.call('exists', KEYS[1]) == 0 then return -1 end "
+                    + "local total = redis.call('hincrby', KEYS[1], 'total', ARGV[2]) "
+                    + "if total < 0 then redis.call('hset', KEYS[1], 'total', 0) total = 0 end "
+                    + "if redis.call('hincrby', KEYS[1], ARGV[1], ARGV[2]) <= 0 then redis.call('hdel', KEYS[1], ARGV[1]) end "
+                    + "redis.call('expire', KEYS[1], ARGV[3]) "
+                    + "return total",
+            Long.class);
+
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('get', KEYS[2]) or '0') ~= ARGV[3] then return 0 end "
+                    + "if ARGV[1] == '0' and redis.call('exists', KEYS[1]) == 1 then return 0 end "
+                    + "redis.call('del', KEYS[1]) "
+                    + "redis.call('hset', KEYS[1], unpack(ARGV, 4)) "
+                    + "redis.call('expire', KEYS[1], ARGV[2]) "
+                    + "return 1",
+            Long.class);
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MessageRepository messageRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration reconcileLockTtl;
+
+    public UnreadCounters(StringRedisTemplate redisTemplate, MessageRepository messageRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.messages.unread.reconcile-interval-ms:600000}") long reconcileIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.messageRepository = messageRepository;
+        this.meterRegistry = meterRegistry;
+        this.reconcileLockTtl = Duration.ofMillis(reconcileIntervalMillis);
+    }
+
+    public long getTotal(Long userId) {
+        return getCounts(userId).getOrDefault(TOTAL, 0L);
+    }
+
+    /**
+     * Unread counts keyed by conversation id, plus the {@code total} entry.
+     */
+    public Map<String, Long> getCounts(Long userId) {
+        Map<Object, Object> hash;
+        String version;
+        try {
+            hash = redisTemplate.opsForHash().entries(key(userId));
+            version = hash.isEmpty() ? version(userId) : null;
+        } catch (DataAccessException e) {
+            return countFromTable(userId);
+        }
+        if (hash.isEmpty()) {
+            Map<String, Long> counts = countFromTable(userId);
+            write(userId, counts, version, false);
+            return counts;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        hash.forEach((field, value) -> counts.put(field.toString(), Long.valueOf(value.toString())));
+        return counts;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        Message message = event.getMessage();
+        apply(message.getReceiver().getId(), message.getConversation().getId(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        if (event.getCount() > 0) {
+            apply(event.getUserId(), event.getConversationId(), -event.getCount());
+        }
+    }
+
+    /**
+     * Recounts every seeded hash from the {@code message} table and rewrites
+     * the ones that drifted. Only the instance holding the reconcile lock
+     * does the work.
+     */
+    @Scheduled(fixedDelayString = "${app.messages.unread.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.messages.unread.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        String lockToken = UUID.randomUUID().toString();
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK, lockToken,
+                    reconcileLockTtl))) {
+                return;
+            }
+        } catch (DataAccessException e) {
+            meterRegistry.counter("messages.unread.reconcile.failures").increment();
+            return;
+        }
+        List<Long> userIds = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(500).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            keys.forEachRemaining(key -> userIds.add(Long.valueOf(key.substring(KEY_PREFIX.length()))));
+            for (Long userId : userIds) {
+                reconcile(userId);
+            }
+        } catch (DataAccessException | NumberFormatException e) {
+            meterRegistry.counter("messages.unread.reconcile.failures").increment();
+        } finally {
+            try {
+                redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(RECONCILE_LOCK), lockToken);
+            } catch (DataAccessException e) {
+                // The lock expires on its own.
+            }
+        }
+    }
+
+    private void reconcile(Long userId) {
+        String version = version(userId);
+        Map<String, Long> actual = countFromTable(userId);
+        Map<String, Long> cached = new HashMap<>();
+        redisTemplate.opsForHash().entries(key(userId))
+                .forEach((field, value) -> cached.put(field.toString(), Long.valueOf(value.toString())));
+        if (!cached.isEmpty() && !cached.equals(actual) && write(userId, actual, version, true)) {
+            long drift = Math.abs(cached.getOrDefault(TOTAL, 0L) - actual.get(TOTAL));
+            meterRegistry.summary("messages.unread.drift").record(drift);
+        }
+    }
+
+    private void apply(Long userId, Long conversationId, long delta) {
+        try {
+            redisTemplate.execute(APPLY_SCRIPT, List.of(key(userId), versionKey(userId)), conversationId.toString(),
+                    Long.toString(delta), Long.toString(TTL.toSeconds()));
+        } catch (DataAccessException e) {
+            // The hash is stale now; drop it so the next read recounts.
+            evict(userId);
+        }
+    }
+
+    /**
+     * Stores counts taken from the table, unless a delta arrived since
+     * {@code version} was read. Without {@code replace} an existing hash is
+     * kept as well. Returns whether the counts were stored.
+     */
+    private boolean write(Long userId, Map<String, Long> counts, String version, boolean replace) {
+        List<String> args = new ArrayList<>(3 + counts.size() * 2);
+        args.add(replace ? "1" : "0");
+        args.add(Long.toString(TTL.toSeconds()));
+        args.add(version);
+        counts.forEach((field, count) -> {
+            args.add(field);
+            args.add(count.toString());
+        });
+        try {
+            Long written = redisTemplate.execute(SEED_SCRIPT, List.of(key(userId), versionKey(userId)),
+                    args.toArray());
+            return Long.valueOf(1).equals(written);
+        } catch (DataAccessException e) {
+            // Seeded again on the next read.
+            return false;
+        }
+    }
+
+    private void evict(Long userId) {
+        try {
+            redisTemplate.delete(key(userId));
+        } catch (DataAccessException e) {
+            // Repaired by the next reconciliation.
+        }
+    }
+
+    private Map<String, Long> countFromTable(Long userId) {
+        Map<String, Long> counts = new HashMap<>();
+        long total = 0;
+        for (ConversationUnreadCount row : messageRepository.countUnreadByConversation(userId)) {
+            counts.put(row.getConversationId().toString(), row.getUnread());
+            total += row.getUnread();
+        }
+        counts.put(TOTAL, total);
+        return counts;
+    }
+
+    private String version(Long userId) {
+        String version = redisTemplate.opsForValue().get(versionKey(userId));
+        return version == null ? "0" : version;
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static String versionKey(Long userId) {
+        return VERSION_PREFIX + userId;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.beaver_bargains.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.beaver_bargains.entity.ConversationInbox;
+
+@Repository
+public interface ConversationInboxRepository extends JpaRepository<ConversationInbox, Long> {
+
+    @Query("SELECT e FROM ConversationInbox e WHERE e.userId = :userId "
+            + "ORDER BY e.lastMessageAt DESC, e.conversationId DESC")
+    List<ConversationInbox> findFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT e FROM ConversationInbox e WHERE e.userId = :userId AND (e.lastMessageAt < :lastMessageAt "
+            + "OR (e.lastMessageAt = :lastMessageAt AND e.conversationId < :conversationId)) "
+            + "ORDER BY e.lastMessageAt DESC, e.conversationId DESC")
+    List<ConversationInbox> findPageAfter(@Param("userId") Long userId, @Param("lastMessageAt") Instant lastMessageAt,
+            @Param("conversationId") Long conversationId, Pageable pageable);
+
+    /**
+     * True when the upserted message is newer than the one the entry shows,
+     * so sends committing out of order never move an entry backwards.
+     */
+    String NEWER_MESSAGE = "(conversation_inbox.last_message_id IS NULL "
+            + "OR EXCLUDED.last_message_id > conversation_inbox.last_message_id)";
+
+    /**
+     * Creates the entry if it does not exist yet, or moves it to the given
+     * last message if that is newer, and always adds {@code unreadIncrement}
+     * to its unread count.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversation_inbox (user_id, conversation_id, counterpart_id, counterpart_first_name, "
+            + "counterpart_last_name, counterpart_profile_image_url, last_message_id, last_message_preview, "
+            + "last_message_at, unread_count) "
+            + "VALUES (:userId, :conversationId, :counterpartId, :firstName, :lastName, :profileImageUrl, "
+            + ":messageId, :preview, :messageAt, :unreadIncrement) "
+            + "ON CONFLICT (user_id, conversation_id) DO UPDATE SET "
+            + "last_message_id = CASE WHEN " + NEWER_MESSAGE + " THEN EXCLUDED.last_message_id "
+            + "ELSE conversation_inbox.last_message_id END, "
+            + "last_message_preview = CASE WHEN " + NEWER_MESSAGE + " THEN EXCLUDED.last_message_preview "
+            + "ELSE conversation_inbox.last_message_preview END, "
+            + "last_message_at = CASE WHEN " + NEWER_MESSAGE + " THEN EXCLUDED.last_message_at "
+            + "ELSE conversation_inbox.last_message_at END, "
+            + "unread_count = conversation_inbox.unread_count + EXCLUDED.unread_count", nativeQuery = true)
+    int upsertLastMessage(@Param("userId") Long userId, @Param("conversationId") Long conversationId,
+            @Param("counterpartId") Long counterpartId, @Param("firstName") String firstName,
+            @Param("lastName") String lastName, @Param("profileImageUrl") String profileImageUrl,
+            @Param("messageId") Long messageId, @Param("preview") String preview,
+            @Param("messageAt") Instant messageAt, @Param("unreadIncrement") int unreadIncrement);
+
+    @Modifying
+    @Query(value = "INSERT INTO conversation_inbox (user_id, conversation_id, counterpart_id, counterpart_first_name, "
+            + "counterpart_last_name, counterpart_profile_image_url, last_message_at, unread_count) "
+            + "VALUES (:userId, :conversationId, :counterpartId, :firstName, :lastName, :profileImageUrl, "
+            + ":createdAt, 0) ON CONFLICT (user_id, conversation_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("conversationId") Long conversationId,
+            @Param("counterpartId") Long counterpartId, @Param("firstName") String firstName,
+            @Param("lastName") String lastName, @Param("profileImageUrl") String profileImageUrl,
+            @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query("UPDATE ConversationInbox e SET e.unreadCount = CASE WHEN e.unreadCount > :count "
+            + "THEN e.unreadCount - :count ELSE 0 END "
+            + "WHERE e.userId = :userId AND e.conversationId = :conversationId")
+    int decrementUnread(@Param("userId") Long userId, @Param("conversationId") Long conversationId,
+            @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE ConversationInbox e SET e.counterpartFirstName = :firstName, e.counterpartLastName = :lastName, "
+            + "e.counterpartProfileImageUrl = :profileImageUrl WHERE e.counterpartId = :counterpartId")
+    int updateCounterpart(@Param("counterpartId") Long counterpartId, @Param("firstName") String firstName,
+            @Param("lastName") String lastName, @Param("profileImageUrl") String profileImageUrl);
+}
@@ -1,17 +1,79 @@
 package com.example.beaver_bargains.repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.beaver_bargains.entity.Conversation;
 import com.example.beaver_bargains.entity.User;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
     List<Conversation> findByUser1OrUser2(User user1, User user2);
 
-    Optional<Conversation> findByUser1AndUser2OrUser1AndUser2(User user1, User user2, User user2Again, User user1Again);
+    @EntityGraph(attributePaths = { "user1", "user2" })
+    Optional<Conversation> findWithParticipantsById(Long id);
+
+    @Query("SELECT c.id FROM Conversation c WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id")
+    Optional<Long> findIdByParticipants(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id);
+
+    /**
+     * Inserts the conversation for a canonically ordered pair
+     * ({@code user1Id <= user2Id}) unless it exists, and returns its id either
+     * way in one statement. The no-op update makes RETURNING yield the
+     * existing row on conflict; {@code xmax = 0} only holds for a fresh insert.
+     * On conflict that update still writes a new row version and holds the
+     * row lock until commit, so callers look the pair up first.
+     */
+    @Query(value = "INSERT INTO conversation (user1_id, user2_id, last_message_timestamp) "
+            + "VALUES (:user1Id, :user2Id, :createdAt) "
+            + "ON CONFLICT (user1_id, user2_id) DO UPDATE SET user1_id = EXCLUDED.user1_id "
+            + "RETURNING id AS id, (xmax = 0) AS created", nativeQuery = true)
+    ConversationUpsert upsert(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id,
+            @Param("createdAt") Instant createdAt);
+
+    @Query("SELECT COUNT(c) > 0 FROM Conversation c "
+            + "WHERE c.id = :conversationId AND (c.user1.id = :userId OR c.user2.id = :userId)")
+    boolean isParticipant(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    /**
+     * The participant's read watermark, locking the conversation row so
+     * concurrent receipts for it are applied one after another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT CASE WHEN c.user1.id = :userId THEN c.user1LastReadMessageId "
+            + "ELSE c.user2LastReadMessageId END FROM Conversation c "
+            + "WHERE c.id = :conversationId AND (c.user1.id = :userId OR c.user2.id = :userId)")
+    Optional<Long> findReadWatermarkForUpdate(@Param("conversationId") Long conversationId,
+            @Param("userId") Long userId);
+
+    /**
+     * Moves the participant's read watermark forward to {@code upToMessageId};
+     * it never moves back.
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET "
+            + "c.user1LastReadMessageId = CASE WHEN c.user1.id = :userId AND c.user1LastReadMessageId < :upToMessageId "
+            + "THEN :upToMessageId ELSE c.user1LastReadMessageId END, "
+            + "c.user2LastReadMessageId = CASE WHEN c.user2.id = :userId AND c.user2LastReadMessageId < :upToMessageId "
+            + "THEN :upToMessageId ELSE c.user2LastReadMessageId END "
+            + "WHERE c.id = :conversationId")
+    int advanceReadWatermark(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+            @Param("upToMessageId") long upToMessageId);
+
+    interface ConversationUpsert {
+        Long getId();
+
+        Boolean getCreated();
+    }
 }
\ No newline at end of file
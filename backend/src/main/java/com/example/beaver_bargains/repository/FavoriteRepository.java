@@ -1,19 +1,33 @@
 package com.example.beaver_bargains.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.beaver_bargains.entity.Favorite;
-import com.example.beaver_bargains.entity.Item;
-import com.example.beaver_bargains.entity.User;
 
 @Repository
 public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
-    List<Favorite> findByUser(User user);
+    @Query("SELECT f.item.id FROM Favorite f WHERE f.user.id = :userId")
+    List<Long> findItemIdsByUserId(@Param("userId") Long userId);
 
-    List<Favorite> findByUserAndItem(User user, Item item);
+    /**
+     * Favorites every existing item in {@code itemIds} in one statement.
+     * Pairs that already exist are skipped by the unique constraint, and
+     * ids of missing items are ignored. Returns the number of rows added.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO favorites (user_id, item_id) "
+            + "SELECT :userId, i.id FROM item i WHERE i.id IN (:itemIds) "
+            + "ON CONFLICT (user_id, item_id) DO NOTHING", nativeQuery = true)
+    int insertIgnoringDuplicates(@Param("userId") Long userId, @Param("itemIds") Collection<Long> itemIds);
 
-    void deleteByUserAndItem(User user, Item item);
-}
\ No newline at end of file
+    @Modifying
+    @Query("DELETE FROM Favorite f WHERE f.user.id = :userId AND f.item.id IN :itemIds")
+    int deleteByUserIdAndItemIdIn(@Param("userId") Long userId, @Param("itemIds") Collection<Long> itemIds);
+}
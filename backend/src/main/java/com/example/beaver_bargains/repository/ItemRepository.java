@@ -1,21 +1,126 @@
 package com.example.beaver_bargains.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.example.beaver_bargains.dto.ItemCard;
 import com.example.beaver_bargains.entity.Item;
 import com.example.beaver_bargains.entity.ItemStatus;
 import com.example.beaver_bargains.entity.User;
 
+/**
+ * List queries load seller and buyer in the same select through an entity
+ * graph; image and tag collections are then batch-fetched (see
+ * {@link Item}), so a list costs a constant number of statements rather
+ * than a few per item.
+ */
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @Override
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    List<Item> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    List<Item> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = { "seller", "buyer" })
     List<Item> findBySeller(User seller);
 
+    @EntityGraph(attributePaths = { "seller", "buyer" })
     List<Item> findBySellerNot(User seller);
 
+    @EntityGraph(attributePaths = { "seller", "buyer" })
     List<Item> findByStatus(ItemStatus status);
 
+    @EntityGraph(attributePaths = { "seller", "buyer" })
     List<Item> findByStatusAndSellerNot(ItemStatus status, User seller);
 
+    @EntityGraph(attributePaths = { "seller", "buyer" })
     List<Item> findByBuyerAndStatus(User buyer, ItemStatus status);
+
+    @Query("SELECT new com.example.beaver_bargains.dto.ItemCard(i.id, i.title, i.price, i.listingDate, i.status, "
+            + "(SELECT url FROM Item img JOIN img.imageUrls url WHERE img.id = i.id AND INDEX(url) = 0), "
+            + "s.id, s.firstName, s.lastName) "
+            + "FROM Item i JOIN i.seller s WHERE i.status = :status AND s.id <> :sellerId "
+            + "ORDER BY i.listingDate DESC, i.id DESC")
+    List<ItemCard> findCardsByStatusAndSellerIdNot(@Param("status") ItemStatus status, @Param("sellerId") Long sellerId);
+
+    @Query("SELECT new com.example.beaver_bargains.dto.ItemCard(i.id, i.title, i.price, i.listingDate, i.status, "
+            + "(SELECT url FROM Item img JOIN img.imageUrls url WHERE img.id = i.id AND INDEX(url) = 0), "
+            + "s.id, s.firstName, s.lastName) "
+            + "FROM Item i JOIN i.seller s WHERE i.id IN :ids")
+    List<ItemCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i.id AS itemId, t AS tag FROM Item i JOIN i.tags t WHERE i.id IN :ids")
+    List<ItemTag> findTagsByItemIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    @Query("SELECT i FROM Item i WHERE i.seller <> :seller ORDER BY i.listingDate DESC, i.id DESC")
+    List<Item> findFirstPageBySellerNot(@Param("seller") User seller, Pageable pageable);
+
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    @Query("SELECT i FROM Item i WHERE i.seller <> :seller "
+            + "AND (i.listingDate < :listingDate OR (i.listingDate = :listingDate AND i.id < :id)) "
+            + "ORDER BY i.listingDate DESC, i.id DESC")
+    List<Item> findPageBySellerNotBefore(@Param("seller") User seller, @Param("listingDate") LocalDateTime listingDate,
+            @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    @Query("SELECT i FROM Item i WHERE i.status = :status AND i.seller <> :seller "
+            + "ORDER BY i.listingDate DESC, i.id DESC")
+    List<Item> findFirstPageByStatusAndSellerNot(@Param("status") ItemStatus status, @Param("seller") User seller,
+            Pageable pageable);
+
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    @Query("SELECT i FROM Item i WHERE i.status = :status AND i.seller <> :seller "
+            + "AND (i.listingDate < :listingDate OR (i.listingDate = :listingDate AND i.id < :id)) "
+            + "ORDER BY i.listingDate DESC, i.id DESC")
+    List<Item> findPageByStatusAndSellerNotBefore(@Param("status") ItemStatus status, @Param("seller") User seller,
+            @Param("listingDate") LocalDateTime listingDate, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    @Query("SELECT i FROM Item i WHERE i.status = :status AND i.seller <> :seller "
+            + "AND EXISTS (SELECT 1 FROM Item t JOIN t.tags tag WHERE t.id = i.id AND tag IN :tags) "
+            + "ORDER BY i.listingDate DESC, i.id DESC")
+    List<Item> findFirstPageByStatusAndSellerNotAndTagIn(@Param("status") ItemStatus status,
+            @Param("seller") User seller, @Param("tags") Collection<String> tags, Pageable pageable);
+
+    @EntityGraph(attributePaths = { "seller", "buyer" })
+    @Query("SELECT i FROM Item i WHERE i.status = :status AND i.seller <> :seller "
+            + "AND EXISTS (SELECT 1 FROM Item t JOIN t.tags tag WHERE t.id = i.id AND tag IN :tags) "
+            + "AND (i.listingDate < :listingDate OR (i.listingDate = :listingDate AND i.id < :id)) "
+            + "ORDER BY i.listingDate DESC, i.id DESC")
+    List<Item> findPageByStatusAndSellerNotAndTagInBefore(@Param("status") ItemStatus status,
+            @Param("seller") User seller, @Param("tags") Collection<String> tags,
+            @Param("listingDate") LocalDateTime listingDate, @Param("id") Long id, Pageable pageable);
+
+    @Query(value = "SELECT i.* FROM item i "
+            + "WHERE i.status = 'ACTIVE' AND i.user_id <> :sellerId "
+            + "AND i.search_vector @@ to_tsquery('english', :tsQuery) "
+            + "ORDER BY ts_rank_cd(i.search_vector, to_tsquery('english', :tsQuery)) DESC, i.listing_date DESC "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Item> searchActiveByFullText(@Param("tsQuery") String tsQuery, @Param("sellerId") Long sellerId,
+            @Param("limit") int limit);
+
+    @Query(value = "SELECT i.* FROM item i "
+            + "WHERE i.status = 'ACTIVE' AND i.user_id <> :sellerId "
+            + "AND i.search_vector @@ to_tsquery('english', :tsQuery) "
+            + "AND EXISTS (SELECT 1 FROM item_tags t WHERE t.item_id = i.id AND t.tag IN (:tags)) "
+            + "ORDER BY ts_rank_cd(i.search_vector, to_tsquery('english', :tsQuery)) DESC, i.listing_date DESC "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Item> searchActiveByFullTextAndTags(@Param("tsQuery") String tsQuery, @Param("tags") List<String> tags,
+            @Param("sellerId") Long sellerId, @Param("limit") int limit);
+
+    interface ItemTag {
+        Long getItemId();
+
+        String getTag();
+    }
 }
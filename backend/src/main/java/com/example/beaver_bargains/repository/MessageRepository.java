@@ -1,21 +1,86 @@
 package com.example.beaver_bargains.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.beaver_bargains.dto.MessageView;
 import com.example.beaver_bargains.entity.Conversation;
 import com.example.beaver_bargains.entity.Message;
-import com.example.beaver_bargains.entity.User;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByConversationOrderByTimestampAsc(Conversation conversation);
 
-    List<Message> findByReceiverAndIsReadFalse(User receiver);
+    /**
+     * The receiver's read watermark on the message's conversation; a message
+     * is read when its id is at or below it.
+     */
+    String READ_WATERMARK = "(CASE WHEN c.user1.id = m.receiver.id "
+            + "THEN c.user1LastReadMessageId ELSE c.user2LastReadMessageId END)";
 
-    long countByReceiverAndIsReadFalse(User receiver);
+    @Query("SELECT m.conversation.id FROM Message m WHERE m.id = :messageId")
+    Optional<Long> findConversationIdById(@Param("messageId") Long messageId);
 
-    List<Message> findByConversationIdAndReceiverAndIsReadFalse(Long conversationId, User receiver);
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.conversation.id = :conversationId")
+    Optional<Long> findLastMessageId(@Param("conversationId") Long conversationId);
+
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.conversation.id = :conversationId AND m.id IN :messageIds")
+    Optional<Long> findLastMessageIdIn(@Param("conversationId") Long conversationId,
+            @Param("messageIds") Collection<Long> messageIds);
+
+    /**
+     * Messages the receiver got in the id range {@code (afterId, upToId]},
+     * i.e. how many a watermark move from {@code afterId} to {@code upToId}
+     * marks as read.
+     */
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId "
+            + "AND m.receiver.id = :receiverId AND m.id > :afterId AND m.id <= :upToId")
+    long countReceivedBetween(@Param("conversationId") Long conversationId, @Param("receiverId") Long receiverId,
+            @Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    @Query("SELECT m FROM Message m JOIN m.conversation c WHERE m.receiver.id = :receiverId "
+            + "AND m.id > " + READ_WATERMARK + " ORDER BY m.id")
+    List<Message> findUnreadByReceiverId(@Param("receiverId") Long receiverId);
+
+    /**
+     * Keyset pages of history, newest first.
+     */
+    @Query("SELECT new com.example.beaver_bargains.dto.MessageView(m.id, c.id, m.sender.id, m.receiver.id, "
+            + "m.content, m.timestamp, CASE WHEN m.id <= " + READ_WATERMARK + " THEN true ELSE false END) "
+            + "FROM Message m JOIN m.conversation c WHERE c.id = :conversationId ORDER BY m.id DESC")
+    List<MessageView> findLatestViews(@Param("conversationId") Long conversationId, Pageable pageable);
+
+    @Query("SELECT new com.example.beaver_bargains.dto.MessageView(m.id, c.id, m.sender.id, m.receiver.id, "
+            + "m.content, m.timestamp, CASE WHEN m.id <= " + READ_WATERMARK + " THEN true ELSE false END) "
+            + "FROM Message m JOIN m.conversation c "
+            + "WHERE c.id = :conversationId AND m.id < :beforeId ORDER BY m.id DESC")
+    List<MessageView> findViewsBefore(@Param("conversationId") Long conversationId, @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    @Query("SELECT new com.example.beaver_bargains.dto.MessageView(m.id, c.id, m.sender.id, m.receiver.id, "
+            + "m.content, m.timestamp, CASE WHEN m.id <= " + READ_WATERMARK + " THEN true ELSE false END) "
+            + "FROM Message m JOIN m.conversation c WHERE c.id = :conversationId AND m.id > :sinceId ORDER BY m.id ASC")
+    List<MessageView> findViewsSince(@Param("conversationId") Long conversationId, @Param("sinceId") Long sinceId,
+            Pageable pageable);
+
+    /**
+     * Per conversation of the receiver, the messages above their watermark.
+     */
+    @Query("SELECT c.id AS conversationId, COUNT(m) AS unread FROM Conversation c JOIN Message m "
+            + "ON m.conversation = c AND m.receiver.id = :receiverId AND m.id > " + READ_WATERMARK + " "
+            + "WHERE c.user1.id = :receiverId OR c.user2.id = :receiverId GROUP BY c.id")
+    List<ConversationUnreadCount> countUnreadByConversation(@Param("receiverId") Long receiverId);
+
+    interface ConversationUnreadCount {
+        Long getConversationId();
+
+        long getUnread();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.beaver_bargains.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.ItemStatus;
+import com.example.beaver_bargains.entity.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+@Component
+public class CriteriaItemSearch implements ItemSearch {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> search(String query, List<String> tags, User currentUser, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Item> cq = cb.createQuery(Item.class);
+        Root<Item> root = cq.from(Item.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.notEqual(root.get("seller"), currentUser));
+        predicates.add(cb.equal(root.get("status"), ItemStatus.ACTIVE));
+
+        String[] keywords = RelevanceRanker.keywords(query);
+        for (String keyword : keywords) {
+            predicates.add(cb.or(
+                    cb.like(cb.lower(root.get("title")), "%" + keyword + "%"),
+                    cb.like(cb.lower(root.get("description")), "%" + keyword + "%")));
+        }
+
+        if (tags != null && !tags.isEmpty()) {
+            predicates.add(root.get("tags").in(tags));
+        }
+
+        cq.where(cb.and(predicates.toArray(new Predicate[0])));
+        cq.orderBy(cb.desc(root.get("listingDate")));
+
+        TypedQuery<Item> typedQuery = entityManager.createQuery(cq);
+        if (keywords.length == 0) {
+            return typedQuery.setMaxResults(limit).getResultList();
+        }
+
+        return RelevanceRanker.rank(typedQuery.getResultList(), keywords, limit);
+    }
+}
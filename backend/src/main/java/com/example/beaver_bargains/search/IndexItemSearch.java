@@ -0,0 +1,54 @@
+package com.example.beaver_bargains.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.repository.ItemRepository;
+
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.search.strategy", havingValue = "index", matchIfMissing = true)
+public class IndexItemSearch implements ItemSearch {
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CriteriaItemSearch criteriaItemSearch;
+
+    @Override
+    public List<Item> search(String query, List<String> tags, User currentUser, int limit) {
+        if (!itemSearchIndex.isReady()) {
+            return criteriaItemSearch.search(query, tags, currentUser, limit);
+        }
+
+        List<Long> rankedIds = itemSearchIndex.search(query, tags, currentUser.getId(), limit);
+        Map<Long, Item> itemsById = itemRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Long> searchIds(String query, List<String> tags, User currentUser, int limit) {
+        if (!itemSearchIndex.isReady()) {
+            return ItemSearch.super.searchIds(query, tags, currentUser, limit);
+        }
+        return itemSearchIndex.search(query, tags, currentUser.getId(), limit);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.beaver_bargains.search;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.User;
+
+/**
+ * Strategy behind {@code ItemService.searchItems}, selected with the
+ * {@code app.search.strategy} property ({@code index}, {@code postgres} or
+ * {@code criteria}).
+ */
+public interface ItemSearch {
+    List<Item> search(String query, List<String> tags, User currentUser, int limit);
+
+    /**
+     * Ranked ids only, for callers that render their own projection.
+     * Strategies that rank without loading items should override this.
+     */
+    default List<Long> searchIds(String query, List<String> tags, User currentUser, int limit) {
+        return search(query, tags, currentUser, limit).stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
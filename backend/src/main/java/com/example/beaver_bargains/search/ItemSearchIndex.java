@@ -0,0 +1,359 @@
+package com.example.beaver_bargains.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.beaver_bargains.catalog.MarketplaceCatalog;
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.ItemStatus;
+import com.example.beaver_bargains.repository.ItemRepository;
+import com.example.beaver_bargains.service.ItemChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory inverted index over the title and description of active items.
+ * Postings keep per-field term frequencies so results can be ranked with
+ * BM25F, title matches weighted above description matches. Changes made on
+ * other instances arrive through {@link MarketplaceCatalog#CHANGE_CHANNEL}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.strategy", havingValue = "index", matchIfMissing = true)
+public class ItemSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private MarketplaceCatalog marketplaceCatalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Posting>> postings = new TreeMap<>();
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+    private long totalTitleLength;
+    private long totalDescriptionLength;
+    private Set<Long> changedDuringRebuild;
+    private TransactionTemplate transactionTemplate;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void subscribe() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Long itemId = marketplaceCatalog.remoteItemId(message);
+            if (itemId != null) {
+                reload(itemId);
+            }
+        }, new ChannelTopic(MarketplaceCatalog.CHANGE_CHANNEL));
+    }
+
+    /**
+     * Replaces the index with the active items in the database. Items indexed
+     * or removed while the rebuild runs are reloaded afterwards, since the
+     * rebuild may have read them before the change.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Set<Long> changed;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Item> activeItems = itemRepository.findByStatus(ItemStatus.ACTIVE);
+                lock.writeLock().lock();
+                try {
+                    postings.clear();
+                    documents.clear();
+                    totalTitleLength = 0;
+                    totalDescriptionLength = 0;
+                    for (Item item : activeItems) {
+                        add(item);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        changed.forEach(this::reload);
+        ready = true;
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isDeleted() || !event.getItem().isActive()) {
+            remove(event.getItemId());
+        } else {
+            index(event.getItem());
+        }
+    }
+
+    /**
+     * Indexes or removes an item according to its current row, for changes
+     * announced by other instances.
+     */
+    public void reload(Long itemId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<Item> item = itemRepository.findById(itemId).filter(Item::isActive);
+            if (item.isPresent()) {
+                index(item.get());
+            } else {
+                remove(itemId);
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            recordChange(item.getId());
+            removeDocument(item.getId());
+            add(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            recordChange(itemId);
+            removeDocument(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of up to {@code limit} active items matching every query
+     * term, best match first. A blank query matches everything and orders by
+     * listing date instead.
+     */
+    public List<Long> search(String query, Collection<String> tags, Long excludedSellerId, int limit) {
+        Set<String> queryTerms = Tokenizer.distinctTokens(query);
+        Set<String> tagFilter = tags == null || tags.isEmpty() ? null : new HashSet<>(tags);
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = queryTerms.isEmpty() ? null : score(queryTerms);
+            Collection<Long> candidates = scores == null ? documents.keySet() : scores.keySet();
+
+            Comparator<ScoredItem> ranking = Comparator.comparingDouble(ScoredItem::score)
+                    .thenComparing(ScoredItem::listingDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparingLong(ScoredItem::itemId);
+            PriorityQueue<ScoredItem> topK = new PriorityQueue<>(ranking);
+
+            for (Long itemId : candidates) {
+                IndexedItem document = documents.get(itemId);
+                if (excludedSellerId != null && excludedSellerId.equals(document.sellerId)) {
+                    continue;
+                }
+                if (tagFilter != null && Collections.disjoint(tagFilter, document.tags)) {
+                    continue;
+                }
+                double score = scores == null ? 0 : scores.get(itemId);
+                topK.offer(new ScoredItem(itemId, score, document.listingDate));
+                if (topK.size() > limit) {
+                    topK.poll();
+                }
+            }
+
+            List<Long> ranked = new ArrayList<>(topK.size());
+            while (!topK.isEmpty()) {
+                ranked.add(topK.poll().itemId());
+            }
+            Collections.reverse(ranked);
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(Set<String> queryTerms) {
+        int documentCount = documents.size();
+        double averageTitleLength = documentCount == 0 ? 1 : Math.max(1.0, (double) totalTitleLength / documentCount);
+        double averageDescriptionLength = documentCount == 0 ? 1
+                : Math.max(1.0, (double) totalDescriptionLength / documentCount);
+
+        Map<Long, Double> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Double> termScores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Posting>> entry : expand(queryTerm).entrySet()) {
+                Map<Long, Posting> termPostings = entry.getValue();
+                double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                for (Map.Entry<Long, Posting> posting : termPostings.entrySet()) {
+                    IndexedItem document = documents.get(posting.getKey());
+                    Posting frequencies = posting.getValue();
+                    double weightedFrequency = TITLE_WEIGHT * frequencies.titleFrequency
+                            / (1 - B + B * document.titleLength / averageTitleLength)
+                            + DESCRIPTION_WEIGHT * frequencies.descriptionFrequency
+                                    / (1 - B + B * document.descriptionLength / averageDescriptionLength);
+                    double termScore = idf * weightedFrequency * (K1 + 1) / (K1 + weightedFrequency);
+                    termScores.merge(posting.getKey(), termScore, Double::sum);
+                }
+            }
+
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Long, Double> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                    Double previousScore = previous.get(entry.getKey());
+                    if (previousScore != null) {
+                        scores.put(entry.getKey(), previousScore + entry.getValue());
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private Map<String, Map<Long, Posting>> expand(String queryTerm) {
+        if (queryTerm.length() < MIN_PREFIX_LENGTH) {
+            Map<Long, Posting> exact = postings.get(queryTerm);
+            return exact == null ? Collections.emptyMap() : Collections.singletonMap(queryTerm, exact);
+        }
+        return postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+    }
+
+    private void recordChange(Long itemId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(itemId);
+        }
+    }
+
+    private void add(Item item) {
+        List<String> titleTerms = Tokenizer.tokenize(item.getTitle());
+        List<String> descriptionTerms = Tokenizer.tokenize(item.getDescription());
+
+        Map<String, Posting> itemPostings = new HashMap<>();
+        for (String term : titleTerms) {
+            itemPostings.computeIfAbsent(term, t -> new Posting()).titleFrequency++;
+        }
+        for (String term : descriptionTerms) {
+            itemPostings.computeIfAbsent(term, t -> new Posting()).descriptionFrequency++;
+        }
+        for (Map.Entry<String, Posting> entry : itemPostings.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(item.getId(), entry.getValue());
+        }
+
+        Long sellerId = item.getSeller() == null ? null : item.getSeller().getId();
+        Set<String> tags = item.getTags() == null ? Collections.emptySet() : new HashSet<>(item.getTags());
+        documents.put(item.getId(), new IndexedItem(sellerId, tags, item.getListingDate(), titleTerms.size(),
+                descriptionTerms.size(), itemPostings.keySet()));
+        totalTitleLength += titleTerms.size();
+        totalDescriptionLength += descriptionTerms.size();
+    }
+
+    private void removeDocument(Long itemId) {
+        IndexedItem document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Long, Posting> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(itemId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalTitleLength -= document.titleLength;
+        totalDescriptionLength -= document.descriptionLength;
+    }
+
+    private static class Posting {
+        private int titleFrequency;
+        private int descriptionFrequency;
+    }
+
+    private static class IndexedItem {
+        private final Long sellerId;
+        private final Set<String> tags;
+        private final LocalDateTime listingDate;
+        private final int titleLength;
+        private final int descriptionLength;
+        private final Set<String> terms;
+
+        private IndexedItem(Long sellerId, Set<String> tags, LocalDateTime listingDate, int titleLength,
+                int descriptionLength, Set<String> terms) {
+            this.sellerId = sellerId;
+            this.tags = tags;
+            this.listingDate = listingDate;
+            this.titleLength = titleLength;
+            this.descriptionLength = descriptionLength;
+            this.terms = terms;
+        }
+    }
+
+    private record ScoredItem(Long itemId, double score, LocalDateTime listingDate) {
+    }
+}
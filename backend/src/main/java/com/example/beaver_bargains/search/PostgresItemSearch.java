@@ -0,0 +1,44 @@
+package com.example.beaver_bargains.search;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.repository.ItemRepository;
+
+/**
+ * Full-text search on a weighted {@code tsvector} column (title A, description
+ * B) backed by a GIN index, ranked in Postgres with {@code ts_rank_cd}. The
+ * column and index are created by the V3 migration.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.search.strategy", havingValue = "postgres")
+public class PostgresItemSearch implements ItemSearch {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CriteriaItemSearch criteriaItemSearch;
+
+    @Override
+    public List<Item> search(String query, List<String> tags, User currentUser, int limit) {
+        List<String> terms = Tokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return criteriaItemSearch.search(query, tags, currentUser, limit);
+        }
+
+        String tsQuery = terms.stream().distinct().map(term -> term + ":*").collect(Collectors.joining(" & "));
+        if (tags == null || tags.isEmpty()) {
+            return itemRepository.searchActiveByFullText(tsQuery, currentUser.getId(), limit);
+        }
+        return itemRepository.searchActiveByFullTextAndTags(tsQuery, tags, currentUser.getId(), limit);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.beaver_bargains.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.example.beaver_bargains.entity.Item;
+
+/**
+ * Keyword relevance ranking for candidates that were already filtered by the
+ * database. Each candidate is scored exactly once; scores and positions are
+ * packed into a primitive {@code long[]} so ordering never allocates, and
+ * when a limit is smaller than the candidate list only the top K are kept in
+ * a bounded heap. Ties keep the incoming order.
+ */
+public final class RelevanceRanker {
+
+    private static final int TITLE_MATCH_SCORE = 2;
+    private static final int DESCRIPTION_MATCH_SCORE = 1;
+
+    private RelevanceRanker() {
+    }
+
+    public static String[] keywords(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        Set<String> keywords = new LinkedHashSet<>();
+        for (String keyword : query.toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (!keyword.isEmpty()) {
+                keywords.add(keyword);
+            }
+        }
+        return keywords.toArray(new String[0]);
+    }
+
+    public static List<Item> rank(List<Item> candidates, String[] keywords, int limit) {
+        int count = candidates.size();
+        int resultSize = Math.min(limit, count);
+        if (resultSize <= 0) {
+            return new ArrayList<>();
+        }
+
+        long[] ranked;
+        if (resultSize == count) {
+            ranked = new long[count];
+            for (int i = 0; i < count; i++) {
+                ranked[i] = pack(score(candidates.get(i), keywords), i);
+            }
+            Arrays.sort(ranked);
+        } else {
+            ranked = selectTopK(candidates, keywords, resultSize);
+        }
+
+        List<Item> results = new ArrayList<>(resultSize);
+        for (long packed : ranked) {
+            results.add(candidates.get(unpackIndex(packed)));
+        }
+        return results;
+    }
+
+    static int score(Item item, String[] keywords) {
+        String title = item.getTitle() == null ? "" : item.getTitle().toLowerCase(Locale.ROOT);
+        String description = item.getDescription() == null ? "" : item.getDescription().toLowerCase(Locale.ROOT);
+        int score = 0;
+        for (String keyword : keywords) {
+            if (title.contains(keyword)) {
+                score += TITLE_MATCH_SCORE;
+            }
+            if (description.contains(keyword)) {
+                score += DESCRIPTION_MATCH_SCORE;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Keeps the K smallest packed values in a max-heap, then sorts them. Smaller
+     * packed values mean higher scores, earlier positions breaking ties.
+     */
+    private static long[] selectTopK(List<Item> candidates, String[] keywords, int k) {
+        long[] heap = new long[k];
+        int size = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            long packed = pack(score(candidates.get(i), keywords), i);
+            if (size < k) {
+                heap[size] = packed;
+                siftUp(heap, size++);
+            } else if (packed < heap[0]) {
+                heap[0] = packed;
+                siftDown(heap, 0, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+        return heap;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int index, int size) {
+        long value = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (value >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private static long pack(int score, int index) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | index;
+    }
+
+    private static int unpackIndex(long packed) {
+        return (int) packed;
+    }
+}
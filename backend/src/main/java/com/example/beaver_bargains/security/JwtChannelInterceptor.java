@@ -0,0 +1,73 @@
+package com.example.beaver_bargains.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Authenticates STOMP sessions from the {@code Authorization} header of the
+ * CONNECT frame, applying the same checks as {@link JwtAuthenticationFilter}.
+ * The resulting principal's name is the user's email, which is what user
+ * destinations are addressed by.
+ */
+@Component
+public class JwtChannelInterceptor implements ChannelInterceptor {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+        String authorizationHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            throw new BadCredentialsException("Missing bearer token");
+        }
+
+        JwtClaims claims;
+        try {
+            claims = jwtUtil.parse(authorizationHeader.substring(7));
+        } catch (JwtException e) {
+            throw new BadCredentialsException("Invalid token", e);
+        }
+        if (claims.getSubject() == null || claims.isExpired()) {
+            throw new BadCredentialsException("Invalid token");
+        }
+
+        if (claims.isStateless()) {
+            if (tokenRevocationService.isRevoked(claims.getUserId(), claims.getIssuedAt())) {
+                throw new BadCredentialsException("Token revoked");
+            }
+            JwtPrincipal principal = JwtPrincipal.from(claims);
+            accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        } else {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            if (!jwtUtil.validateToken(claims, userDetails)) {
+                throw new BadCredentialsException("Invalid token");
+            }
+            accessor.setUser(new UsernamePasswordAuthenticationToken(userDetails, null,
+                    userDetails.getAuthorities()));
+        }
+        return message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.beaver_bargains.security;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Claims of a token whose signature has already been verified by
+ * {@link JwtUtil#parse(String)}.
+ */
+@Getter
+public class JwtClaims {
+    private final String subject;
+    private final Long userId;
+    private final List<String> authorities;
+    private final Instant issuedAt;
+    private final Instant expiration;
+
+    public JwtClaims(String subject, Long userId, List<String> authorities, Instant issuedAt, Instant expiration) {
+        this.subject = subject;
+        this.userId = userId;
+        this.authorities = authorities;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+
+    public boolean isStateless() {
+        return userId != null && authorities != null;
+    }
+}
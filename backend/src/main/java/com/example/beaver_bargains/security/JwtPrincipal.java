@@ -0,0 +1,38 @@
+package com.example.beaver_bargains.security;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import lombok.Getter;
+
+/**
+ * Principal built from token claims alone, so authenticating a request does
+ * not need to load the {@code User} row.
+ */
+@Getter
+public class JwtPrincipal implements AuthenticatedPrincipal, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String email;
+    private final List<SimpleGrantedAuthority> authorities;
+
+    public JwtPrincipal(Long id, String email, List<SimpleGrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.authorities = authorities;
+    }
+
+    public static JwtPrincipal from(JwtClaims claims) {
+        return new JwtPrincipal(claims.getUserId(), claims.getSubject(),
+                claims.getAuthorities().stream().map(SimpleGrantedAuthority::new).toList());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
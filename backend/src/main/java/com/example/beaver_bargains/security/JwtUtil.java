@@ -1,11 +1,20 @@
 package com.example.beaver_bargains.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -16,29 +25,88 @@ import io.jsonwebtoken.SignatureAlgorithm;
 @Component
 public class JwtUtil {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String AUTHORITIES_CLAIM = "roles";
+
+    private static final int MAX_VERIFIED_TOKENS = 10_000;
+
     @Value("${security.jwt.secret-key}")
     private String secretKey;
 
     @Value("${security.jwt.expiration-time}")
     private long expirationTime;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    private final Map<String, JwtClaims> verifiedTokens = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JwtClaims> eldest) {
+            return size() > MAX_VERIFIED_TOKENS;
+        }
+    };
+
+    /**
+     * Issues a token for the user. Its {@code iat} is never earlier than the
+     * user's revocation watermark, which can lie up to a second ahead of now
+     * right after a password change.
+     */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        long issuedAt = System.currentTimeMillis();
+        if (userDetails instanceof CustomUserDetails customUserDetails && customUserDetails.getUser() != null) {
+            Long userId = customUserDetails.getUser().getId();
+            claims.put(USER_ID_CLAIM, userId);
+            if (userId != null) {
+                issuedAt = Math.max(issuedAt, tokenRevocationService.earliestIssuedAt(userId).toEpochMilli());
+            }
+        }
+        claims.put(AUTHORITIES_CLAIM,
+                userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        return createToken(claims, userDetails.getUsername(), issuedAt);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
+    private String createToken(Map<String, Object> claims, String subject, long issuedAt) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setIssuedAt(new Date(issuedAt))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
                 .signWith(SignatureAlgorithm.HS256, secretKey)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims. Verified tokens are remembered
+     * by hash until they expire, so repeat requests with the same token skip
+     * the signature check. Invalid or expired tokens throw a
+     * {@link io.jsonwebtoken.JwtException}.
+     */
+    public JwtClaims parse(String token) {
+        String tokenHash = hash(token);
+        JwtClaims cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(tokenHash);
+            if (cached != null && cached.isExpired()) {
+                verifiedTokens.remove(tokenHash);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        JwtClaims verified = new JwtClaims(claims.getSubject(), userId(claims), authorities(claims),
+                toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()));
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(tokenHash, verified);
+        }
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parse(token).getSubject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -51,15 +119,36 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parse(token), userDetails);
+    }
+
+    public boolean validateToken(JwtClaims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.isExpired();
+    }
+
+    private static Long userId(Claims claims) {
+        Object userId = claims.get(USER_ID_CLAIM);
+        return userId instanceof Number number ? number.longValue() : null;
+    }
+
+    private static List<String> authorities(Claims claims) {
+        Object authorities = claims.get(AUTHORITIES_CLAIM);
+        if (!(authorities instanceof List<?> values)) {
+            return null;
+        }
+        return values.stream().map(String::valueOf).toList();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
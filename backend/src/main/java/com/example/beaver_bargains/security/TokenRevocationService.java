@@ -0,0 +1,82 @@
+package com.example.beaver_bargains.security;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per-user "tokens issued before" watermark kept in a Redis hash. Stateless
+ * tokens carry no database state, so password changes and account deletion
+ * revoke them by moving the watermark forward. Lookups are cached locally for
+ * a short time to keep Redis off the per-request path.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final String REVOCATION_KEY = "auth:tokens-revoked-before";
+    private static final long LOCAL_TTL_MILLIS = 30_000;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    private final Map<Long, Watermark> watermarks = new ConcurrentHashMap<>();
+
+    /**
+     * JWT {@code iat} only has whole seconds, so the watermark is rounded up:
+     * every token issued before {@code instant} has an {@code iat} below it.
+     * Tokens issued afterwards in the same second are stamped with the
+     * watermark itself (see {@link #earliestIssuedAt}) and stay valid.
+     */
+    public void revokeTokensIssuedBefore(Long userId, Instant instant) {
+        long epochSecond = instant.getNano() == 0 ? instant.getEpochSecond() : instant.getEpochSecond() + 1;
+        redisTemplate.opsForHash().put(REVOCATION_KEY, userId.toString(), Long.toString(epochSecond));
+        watermarks.put(userId, new Watermark(epochSecond, System.currentTimeMillis()));
+    }
+
+    public boolean isRevoked(Long userId, Instant issuedAt) {
+        if (issuedAt == null) {
+            return true;
+        }
+        return issuedAt.getEpochSecond() < revokedBefore(userId, false);
+    }
+
+    /**
+     * The earliest {@code iat} a new token for the user may carry without
+     * being revoked already. Read from Redis rather than the local cache, so
+     * a revocation made on another instance a moment ago is seen.
+     */
+    public Instant earliestIssuedAt(Long userId) {
+        return Instant.ofEpochSecond(revokedBefore(userId, true));
+    }
+
+    private long revokedBefore(Long userId, boolean fresh) {
+        long now = System.currentTimeMillis();
+        Watermark cached = watermarks.get(userId);
+        if (!fresh && cached != null && now - cached.fetchedAt < LOCAL_TTL_MILLIS) {
+            return cached.epochSecond;
+        }
+        try {
+            Object value = redisTemplate.opsForHash().get(REVOCATION_KEY, userId.toString());
+            long epochSecond = value == null ? 0 : Long.parseLong(value.toString());
+            watermarks.put(userId, new Watermark(epochSecond, now));
+            return epochSecond;
+        } catch (DataAccessException e) {
+            return cached == null ? 0 : cached.epochSecond;
+        }
+    }
+
+    private static class Watermark {
+        private final long epochSecond;
+        private final long fetchedAt;
+
+        private Watermark(long epochSecond, long fetchedAt) {
+            this.epochSecond = epochSecond;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -1,62 +1,193 @@
 package com.example.beaver_bargains.service;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import com.example.beaver_bargains.entity.Favorite;
-import com.example.beaver_bargains.entity.Item;
-import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.dto.FavoriteIdSet;
+import com.example.beaver_bargains.dto.ItemCard;
 import com.example.beaver_bargains.repository.FavoriteRepository;
 import com.example.beaver_bargains.repository.ItemRepository;
-import com.example.beaver_bargains.repository.UserRepository;
 
 import jakarta.transaction.Transactional;
 
 @Service
 public class FavoriteService {
 
+    private static final String FAVORITE_ITEM_IDS = "favoriteItemIds";
+    private static final String WRITE_COUNTER_PREFIX = "favorites:writes:";
+    private static final Duration WRITE_COUNTER_TTL = Duration.ofMinutes(1);
+
     @Autowired
     private FavoriteRepository favoriteRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
 
     @Autowired
     private ItemRepository itemRepository;
 
-    @Cacheable(value = "favoriteItemIds", key = "#userEmail")
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
     public List<Long> getFavoriteItemIds(String userEmail) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
+        return getFavoriteIdSet(userService.getUserId(userEmail)).toList();
+    }
 
-        return favoriteRepository.findByUser(user).stream()
-                .map(favorite -> favorite.getItem().getId())
-                .collect(Collectors.toList());
+    /**
+     * The user's favorites as a primitive id set, loaded with an id-only
+     * query and cached per user id.
+     */
+    public FavoriteIdSet getFavoriteIdSet(Long userId) {
+        return cacheManager.getCache(FAVORITE_ITEM_IDS).get(userId,
+                () -> FavoriteIdSet.of(favoriteRepository.findItemIdsByUserId(userId)));
+    }
+
+    public boolean isFavorite(Long userId, long itemId) {
+        return getFavoriteIdSet(userId).contains(itemId);
+    }
+
+    /**
+     * Flags the cards the user has favorited, looking the set up once.
+     */
+    public List<ItemCard> markFavorites(String userEmail, List<ItemCard> cards) {
+        FavoriteIdSet favorites = getFavoriteIdSet(userService.getUserId(userEmail));
+        for (ItemCard card : cards) {
+            card.setFavorite(favorites.contains(card.getId()));
+        }
+        return cards;
+    }
+
+    public List<ItemCard> getFavoriteItemCards(String userEmail) {
+        List<ItemCard> cards = itemService.getItemCards(getFavoriteItemIds(userEmail));
+        cards.forEach(card -> card.setFavorite(true));
+        return cards;
     }
 
     @Transactional
-    @CacheEvict(value = "favoriteItemIds", key = "#userEmail")
     public void addFavorite(String userEmail, Long itemId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new RuntimeException("Item not found"));
-        Favorite favorite = new Favorite(user, item);
-        favoriteRepository.save(favorite);
+        Long userId = userService.getUserId(userEmail);
+        long write = beginWrite(userId);
+        int inserted = favoriteRepository.insertIgnoringDuplicates(userId, List.of(itemId));
+        if (inserted == 0 && !itemRepository.existsById(itemId)) {
+            throw new RuntimeException("Item not found");
+        }
+        updateCachedIdsAfterCommit(userId, write, List.of(itemId), Collections.emptyList());
     }
 
     @Transactional
-    @CacheEvict(value = "favoriteItemIds", key = "#userEmail")
     public void removeFavorite(String userEmail, Long itemId) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> new RuntimeException("User not found"));
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new RuntimeException("Item not found"));
+        Long userId = userService.getUserId(userEmail);
+        long write = beginWrite(userId);
+        favoriteRepository.deleteByUserIdAndItemIdIn(userId, List.of(itemId));
+        updateCachedIdsAfterCommit(userId, write, Collections.emptyList(), List.of(itemId));
+    }
 
-        List<Favorite> favorites = favoriteRepository.findByUserAndItem(user, item);
+    /**
+     * Adds and removes several favorites in one insert and one delete. Ids of
+     * items that do not exist are ignored. Returns the updated favorite ids.
+     */
+    @Transactional
+    public List<Long> updateFavorites(String userEmail, Collection<Long> add, Collection<Long> remove) {
+        Long userId = userService.getUserId(userEmail);
+        long write = beginWrite(userId);
+        Set<Long> added = add == null ? Collections.emptySet() : new LinkedHashSet<>(add);
+        Set<Long> removed = remove == null ? Collections.emptySet() : new LinkedHashSet<>(remove);
+        added.removeAll(removed);
+
+        if (!removed.isEmpty()) {
+            favoriteRepository.deleteByUserIdAndItemIdIn(userId, removed);
+        }
+        if (!added.isEmpty() && favoriteRepository.insertIgnoringDuplicates(userId, added) < added.size()) {
+            // Some ids were duplicates or missing items; the cached set can't tell which.
+            evictAfterCommit(userId);
+        } else {
+            updateCachedIdsAfterCommit(userId, write, added, removed);
+        }
+        return favoriteRepository.findItemIdsByUserId(userId);
+    }
+
+    /**
+     * Counts a favorites write for the user in Redis and returns its number,
+     * so the commit hook can tell whether another write started meanwhile.
+     * Returns -1 when Redis is unavailable.
+     */
+    private long beginWrite(Long userId) {
+        try {
+            String key = WRITE_COUNTER_PREFIX + userId;
+            Long write = redisTemplate.opsForValue().increment(key);
+            redisTemplate.expire(key, WRITE_COUNTER_TTL);
+            return write == null ? -1 : write;
+        } catch (DataAccessException e) {
+            return -1;
+        }
+    }
+
+    private boolean isLatestWrite(Long userId, long write) {
+        if (write < 0) {
+            return false;
+        }
+        try {
+            return Long.toString(write).equals(redisTemplate.opsForValue().get(WRITE_COUNTER_PREFIX + userId));
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Applies the change to the cached id set once the transaction commits,
+     * instead of evicting it, so the next read does not have to reload every
+     * favorite. A rolled back write leaves the cache alone. If another write
+     * for the user started in the meantime the patch could lose its change,
+     * so the set is evicted instead.
+     */
+    private void updateCachedIdsAfterCommit(Long userId, long write, Collection<Long> added,
+            Collection<Long> removed) {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(FAVORITE_ITEM_IDS);
+            if (!isLatestWrite(userId, write)) {
+                cache.evict(userId);
+                return;
+            }
+            FavoriteIdSet cached = cache.get(userId, FavoriteIdSet.class);
+            if (cached != null) {
+                cache.put(userId, cached.with(added, removed));
+            }
+        });
+    }
+
+    private void evictAfterCommit(Long userId) {
+        afterCommit(() -> cacheManager.getCache(FAVORITE_ITEM_IDS).evict(userId));
+    }
 
-        if (!favorites.isEmpty()) {
-            favoriteRepository.deleteAll(favorites);
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
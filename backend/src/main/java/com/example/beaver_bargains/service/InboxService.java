@@ -0,0 +1,99 @@
+package com.example.beaver_bargains.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.example.beaver_bargains.dto.InboxCursor;
+import com.example.beaver_bargains.dto.InboxPageDto;
+import com.example.beaver_bargains.entity.Conversation;
+import com.example.beaver_bargains.entity.ConversationInbox;
+import com.example.beaver_bargains.entity.Message;
+import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.repository.ConversationInboxRepository;
+import com.example.beaver_bargains.repository.UserRepository;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Maintains the {@code conversation_inbox} read model. The write methods are
+ * called from inside the transactions of {@link MessageService} and
+ * {@link NotificationService} so the inbox never disagrees with the messages.
+ */
+@Service
+public class InboxService {
+
+    static final int PREVIEW_LENGTH = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private ConversationInboxRepository inboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public InboxPageDto getInbox(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageRequest request = PageRequest.of(0, pageSize + 1);
+        List<ConversationInbox> entries;
+        if (cursor == null) {
+            entries = inboxRepository.findFirstPage(userId, request);
+        } else {
+            InboxCursor position = InboxCursor.decode(cursor);
+            entries = inboxRepository.findPageAfter(userId, position.getLastMessageAt(),
+                    position.getConversationId(), request);
+        }
+        if (entries.size() <= pageSize) {
+            return new InboxPageDto(entries, null);
+        }
+        List<ConversationInbox> page = entries.subList(0, pageSize);
+        return new InboxPageDto(page, InboxCursor.of(page.get(pageSize - 1)).encode());
+    }
+
+    void conversationCreated(Conversation conversation) {
+        User user1 = conversation.getUser1();
+        User user2 = conversation.getUser2();
+        inboxRepository.insertIfAbsent(user1.getId(), conversation.getId(), user2.getId(), user2.getFirstName(),
+                user2.getLastName(), user2.getProfileImageUrl(), conversation.getLastMessageTimestamp());
+        inboxRepository.insertIfAbsent(user2.getId(), conversation.getId(), user1.getId(), user1.getFirstName(),
+                user1.getLastName(), user1.getProfileImageUrl(), conversation.getLastMessageTimestamp());
+    }
+
+    void messageSent(Message message) {
+        User sender = message.getSender();
+        User receiver = message.getReceiver();
+        Long conversationId = message.getConversation().getId();
+        String preview = preview(message.getContent());
+        inboxRepository.upsertLastMessage(sender.getId(), conversationId, receiver.getId(), receiver.getFirstName(),
+                receiver.getLastName(), receiver.getProfileImageUrl(), message.getId(), preview,
+                message.getTimestamp(), 0);
+        if (!receiver.getId().equals(sender.getId())) {
+            inboxRepository.upsertLastMessage(receiver.getId(), conversationId, sender.getId(),
+                    sender.getFirstName(), sender.getLastName(), sender.getProfileImageUrl(), message.getId(),
+                    preview, message.getTimestamp(), 1);
+        }
+    }
+
+    void messagesRead(Long userId, Long conversationId, int count) {
+        if (count > 0) {
+            inboxRepository.decrementUnread(userId, conversationId, count);
+        }
+    }
+
+    @EventListener
+    @Transactional
+    public void onUserChanged(UserChangedEvent event) {
+        userRepository.findById(event.getUserId()).ifPresent(user -> inboxRepository
+                .updateCounterpart(user.getId(), user.getFirstName(), user.getLastName(), user.getProfileImageUrl()));
+    }
+
+    private static String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH);
+    }
+}
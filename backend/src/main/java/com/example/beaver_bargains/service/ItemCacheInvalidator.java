@@ -0,0 +1,96 @@
+package com.example.beaver_bargains.service;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.cache.Cache;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.beaver_bargains.cache.CacheDependencyTracker;
+import com.example.beaver_bargains.cache.TwoTierCacheManager;
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Evicts only the cached item lists and pages that actually contain a changed
+ * item (or a changed seller), instead of clearing every user's marketplace.
+ * Entries that cannot contain the item yet, such as the seller's active list
+ * after a reactivation, are evicted by key.
+ */
+@Component
+public class ItemCacheInvalidator {
+
+    private final TwoTierCacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    public ItemCacheInvalidator(TwoTierCacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getChange() == ItemChangedEvent.Change.CREATED) {
+            return;
+        }
+        Map<String, Integer> evicted = cacheManager.evictDependents(
+                Collections.singletonList(CacheDependencyTracker.item(event.getItemId())));
+        int fanOut = record(event.getChange().name(), evicted);
+
+        Item item = event.getItem();
+        if (event.getChange() == ItemChangedEvent.Change.STATUS_CHANGED && item != null) {
+            evictUserEntry("activeItemsByUser", item.getSeller());
+            evictUserEntry("soldItemsByUser", item.getSeller());
+            evictUserEntry("purchasedItemsByUser", item.getBuyer());
+            if (item.isActive()) {
+                // A reactivated listing is not in the cached active list yet.
+                clear("allActiveItems");
+            }
+        }
+        if (event.isTagsChanged()) {
+            clear("allTags");
+        }
+        fanOutSummary(event.getChange().name()).record(fanOut);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        Map<String, Integer> evicted = cacheManager.evictDependents(
+                Collections.singletonList(CacheDependencyTracker.seller(event.getUserId())));
+        fanOutSummary("SELLER_CHANGED").record(record("SELLER_CHANGED", evicted));
+    }
+
+    private void evictUserEntry(String cacheName, User user) {
+        if (user != null && user.getEmail() != null) {
+            cacheManager.getCache(cacheName).evict(user.getEmail());
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        cache.clear();
+        Counter.builder("cache.invalidation.clears").tag("cache", cacheName)
+                .description("Whole-cache clears caused by item mutations").register(meterRegistry).increment();
+    }
+
+    private int record(String change, Map<String, Integer> evicted) {
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : evicted.entrySet()) {
+            Counter.builder("cache.invalidation.evictions").tag("cache", entry.getKey()).tag("change", change)
+                    .description("Cache entries evicted because they depended on a changed item")
+                    .register(meterRegistry).increment(entry.getValue());
+            total += entry.getValue();
+        }
+        return total;
+    }
+
+    private DistributionSummary fanOutSummary(String change) {
+        return DistributionSummary.builder("cache.invalidation.fanout").tag("change", change)
+                .description("Dependent cache entries evicted per mutation").register(meterRegistry);
+    }
+}
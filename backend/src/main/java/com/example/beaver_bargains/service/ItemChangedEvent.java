@@ -0,0 +1,48 @@
+package com.example.beaver_bargains.service;
+
+import java.util.Objects;
+import java.util.Set;
+
+import com.example.beaver_bargains.entity.Item;
+
+import lombok.Getter;
+
+@Getter
+public class ItemChangedEvent {
+
+    public enum Change {
+        CREATED, UPDATED, STATUS_CHANGED, DELETED
+    }
+
+    private final Long itemId;
+    private final Item item;
+    private final Change change;
+    private final boolean tagsChanged;
+
+    private ItemChangedEvent(Long itemId, Item item, Change change, boolean tagsChanged) {
+        this.itemId = itemId;
+        this.item = item;
+        this.change = change;
+        this.tagsChanged = tagsChanged;
+    }
+
+    public static ItemChangedEvent created(Item item) {
+        return new ItemChangedEvent(item.getId(), item, Change.CREATED, true);
+    }
+
+    public static ItemChangedEvent updated(Item item, Set<String> previousTags) {
+        return new ItemChangedEvent(item.getId(), item, Change.UPDATED, !Objects.equals(item.getTags(), previousTags));
+    }
+
+    public static ItemChangedEvent statusChanged(Item item) {
+        return new ItemChangedEvent(item.getId(), item, Change.STATUS_CHANGED, true);
+    }
+
+    public static ItemChangedEvent deleted(Long itemId) {
+        return new ItemChangedEvent(itemId, null, Change.DELETED, true);
+    }
+
+    public boolean isDeleted() {
+        return item == null;
+    }
+}
@@ -4,8 +4,10 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -13,25 +15,36 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.beaver_bargains.catalog.CatalogSnapshot;
+import com.example.beaver_bargains.catalog.MarketplaceCatalog;
+import com.example.beaver_bargains.dto.ItemCard;
+import com.example.beaver_bargains.dto.ItemCursor;
 import com.example.beaver_bargains.dto.ItemDto;
+import com.example.beaver_bargains.dto.ItemPageDto;
 import com.example.beaver_bargains.entity.Item;
 import com.example.beaver_bargains.entity.ItemStatus;
 import com.example.beaver_bargains.entity.User;
 import com.example.beaver_bargains.repository.ItemRepository;
+import com.example.beaver_bargains.search.ItemSearch;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 
 @Service
 public class ItemService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_RESULTS = 500;
+
     @Autowired
     private ItemRepository itemRepository;
 
@@ -41,6 +54,15 @@ public class ItemService {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private ItemSearch itemSearch;
+
+    @Autowired
+    private MarketplaceCatalog marketplaceCatalog;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -50,9 +72,7 @@ public class ItemService {
     @Caching(evict = {
             @CacheEvict(value = "allItems", allEntries = true),
             @CacheEvict(value = "itemsByUser", key = "#userEmail"),
-            @CacheEvict(value = "allItemsExceptUser", key = "#userEmail"),
-            @CacheEvict(value = "allActiveItems", allEntries = true),
-            @CacheEvict(value = "allActiveItemsExceptUser", key = "#userEmail")
+            @CacheEvict(value = "allActiveItems", allEntries = true)
     })
     public Item createItem(ItemDto itemDto, List<MultipartFile> images, String userEmail) throws IOException {
         User seller = userService.getUserByEmail(userEmail);
@@ -76,42 +96,61 @@ public class ItemService {
         item.setSeller(seller);
         item.setStatus(ItemStatus.ACTIVE);
 
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.created(savedItem));
+        return savedItem;
     }
 
-    @Cacheable(value = "allItems")
+    @Cacheable(value = "allItems", sync = true)
     public List<Item> getAllItems() {
         return itemRepository.findAll();
     }
 
     @Cacheable(value = "allItems")
     public List<Item> getItemsByUser(String userEmail) {
-        User user = userService.getUserByEmail(userEmail);
+        User user = userService.getUserReference(userEmail);
         if (user == null) {
             throw new RuntimeException("User not found");
         }
         return itemRepository.findBySeller(user);
     }
 
-    @Cacheable(value = "allItemsExceptUser", key = "#userEmail")
     public List<Item> getAllItemsExceptUser(String userEmail) {
-        User user = userService.getUserByEmail(userEmail);
+        if (marketplaceCatalog.isReady()) {
+            Long userId = userService.getUserId(userEmail);
+            return marketplaceCatalog.snapshot().list(CatalogSnapshot.visibleTo(userId, false, null));
+        }
+        User user = userService.getUserReference(userEmail);
         if (user == null) {
             throw new RuntimeException("User not found");
         }
         return itemRepository.findBySellerNot(user);
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "allItems", allEntries = true),
-            @CacheEvict(value = "itemsByUser", key = "#userEmail"),
-            @CacheEvict(value = "allItemsExceptUser", allEntries = true),
-            @CacheEvict(value = "allActiveItems", allEntries = true),
-            @CacheEvict(value = "allActiveItemsExceptUser", allEntries = true)
-    })
+    public ItemPageDto getItemsPageExceptUser(String userEmail, String cursor, int size) {
+        Pageable limit = pageLimit(size);
+        if (marketplaceCatalog.isReady()) {
+            Long userId = userService.getUserId(userEmail);
+            ItemCursor position = cursor == null ? null : ItemCursor.decode(cursor);
+            List<Item> items = marketplaceCatalog.snapshot().page(CatalogSnapshot.visibleTo(userId, false, null),
+                    position, limit.getPageSize());
+            return toPage(items, limit.getPageSize() - 1);
+        }
+        User user = userService.getUserReference(userEmail);
+        List<Item> items;
+        if (cursor == null) {
+            items = itemRepository.findFirstPageBySellerNot(user, limit);
+        } else {
+            ItemCursor position = ItemCursor.decode(cursor);
+            items = itemRepository.findPageBySellerNotBefore(user, position.getListingDate(), position.getId(), limit);
+        }
+        return toPage(items, limit.getPageSize() - 1);
+    }
+
     public Item updateItem(Long itemId, ItemDto itemDto, List<MultipartFile> newImages, String userEmail)
             throws IOException {
         Item existingItem = itemRepository.findById(itemId).orElseThrow(() -> new RuntimeException("Item not found"));
+        Set<String> previousTags = new HashSet<>(existingItem.getTags());
 
         existingItem.setTitle(itemDto.getTitle());
         existingItem.setDescription(itemDto.getDescription());
@@ -131,72 +170,77 @@ public class ItemService {
             existingItem.setImageUrls(newImageUrls);
         }
 
-        return itemRepository.save(existingItem);
+        Item savedItem = itemRepository.save(existingItem);
+        eventPublisher.publishEvent(ItemChangedEvent.updated(savedItem, previousTags));
+        return savedItem;
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "allItems", allEntries = true),
-            @CacheEvict(value = "itemsByUser", key = "#userEmail"),
-            @CacheEvict(value = "allItemsExceptUser", allEntries = true),
-            @CacheEvict(value = "allActiveItems", allEntries = true),
-            @CacheEvict(value = "allActiveItemsExceptUser", allEntries = true),
-            @CacheEvict(value = "activeItemsByUser", key = "#userEmail"),
-            @CacheEvict(value = "soldItemsByUser", key = "#userEmail"),
-            @CacheEvict(value = "purchasedItemsByUser", allEntries = true),
-            @CacheEvict(value = "allTags", allEntries = true)
-    })
     public void deleteItem(Long itemId, String userEmail) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new RuntimeException("Item not found"));
         for (String imageUrl : item.getImageUrls()) {
             fileStorageService.deleteFile(imageUrl);
         }
         itemRepository.delete(item);
+        eventPublisher.publishEvent(ItemChangedEvent.deleted(itemId));
     }
 
-    public List<Item> searchItems(String query, List<String> tags, String userEmail) {
-        User currentUser = userService.getUserByEmail(userEmail);
+    public List<Item> searchItems(String query, List<String> tags, String userEmail, int limit) {
+        User currentUser = userService.getUserReference(userEmail);
+        int resultLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return itemSearch.search(query, tags, currentUser, resultLimit);
+    }
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Item> cq = cb.createQuery(Item.class);
-        Root<Item> root = cq.from(Item.class);
+    public List<ItemCard> searchItemCards(String query, List<String> tags, String userEmail, int limit) {
+        User currentUser = userService.getUserReference(userEmail);
+        int resultLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return getItemCards(itemSearch.searchIds(query, tags, currentUser, resultLimit));
+    }
 
-        List<Predicate> predicates = new ArrayList<>();
-        predicates.add(cb.notEqual(root.get("seller"), currentUser));
-        predicates.add(cb.equal(root.get("status"), ItemStatus.ACTIVE));
+    public List<ItemCard> getActiveItemCardsExceptUser(String userEmail) {
+        Long userId = userService.getUserId(userEmail);
+        return withTags(itemRepository.findCardsByStatusAndSellerIdNot(ItemStatus.ACTIVE, userId));
+    }
 
-        if (query != null && !query.trim().isEmpty()) {
-            String[] keywords = query.toLowerCase().split("\\s+");
-            for (String keyword : keywords) {
-                predicates.add(cb.or(
-                        cb.like(cb.lower(root.get("title")), "%" + keyword + "%"),
-                        cb.like(cb.lower(root.get("description")), "%" + keyword + "%")));
+    /**
+     * Cards for the given item ids, in the order the ids are given. Ids of
+     * items that no longer exist are skipped.
+     */
+    public List<ItemCard> getItemCards(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ItemCard> cardsById = new HashMap<>();
+        for (ItemCard card : withTags(itemRepository.findCardsByIdIn(itemIds))) {
+            cardsById.put(card.getId(), card);
+        }
+        List<ItemCard> ordered = new ArrayList<>(cardsById.size());
+        for (Long itemId : itemIds) {
+            ItemCard card = cardsById.get(itemId);
+            if (card != null) {
+                ordered.add(card);
             }
         }
+        return ordered;
+    }
 
-        if (tags != null && !tags.isEmpty()) {
-            predicates.add(root.get("tags").in(tags));
+    private List<ItemCard> withTags(List<ItemCard> cards) {
+        if (cards.isEmpty()) {
+            return cards;
         }
-
-        cq.where(cb.and(predicates.toArray(new Predicate[0])));
-        cq.orderBy(cb.desc(root.get("listingDate")));
-
-        List<Item> results = entityManager.createQuery(cq).getResultList();
-
-        if (query != null && !query.trim().isEmpty()) {
-            String[] keywords = query.toLowerCase().split("\\s+");
-            return results.stream()
-                    .sorted((item1, item2) -> Integer.compare(
-                            calculateRelevanceScore(item2, keywords),
-                            calculateRelevanceScore(item1, keywords)))
-                    .collect(Collectors.toList());
+        Map<Long, ItemCard> cardsById = new HashMap<>();
+        for (ItemCard card : cards) {
+            card.setTags(new HashSet<>());
+            cardsById.put(card.getId(), card);
         }
-
-        return results;
+        for (ItemRepository.ItemTag tag : itemRepository.findTagsByItemIdIn(cardsById.keySet())) {
+            cardsById.get(tag.getItemId()).getTags().add(tag.getTag());
+        }
+        return cards;
     }
 
-    @Cacheable(value = "allTags", key = "#userEmail")
+    @Cacheable(value = "allTags", key = "#userEmail", sync = true)
     public Set<String> getAllTags(String userEmail) {
-        User currentUser = userService.getUserByEmail(userEmail);
+        User currentUser = userService.getUserReference(userEmail);
 
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<String> cq = cb.createQuery(String.class);
@@ -214,33 +258,64 @@ public class ItemService {
         return tags;
     }
 
-    private int calculateRelevanceScore(Item item, String[] keywords) {
-        int score = 0;
-        for (String keyword : keywords) {
-            if (item.getTitle().toLowerCase().contains(keyword)) {
-                score += 2;
-            }
-            if (item.getDescription().toLowerCase().contains(keyword)) {
-                score += 1;
-            }
-        }
-        return score;
-    }
-
-    @Cacheable(value = "allActiveItems")
+    @Cacheable(value = "allActiveItems", sync = true)
     public List<Item> getAllActiveItems() {
         return itemRepository.findByStatus(ItemStatus.ACTIVE);
     }
 
-    @Cacheable(value = "allActiveItemsExceptUser", key = "#userEmail")
     public List<Item> getAllActiveItemsExceptUser(String userEmail) {
-        User currentUser = userService.getUserByEmail(userEmail);
+        if (marketplaceCatalog.isReady()) {
+            Long userId = userService.getUserId(userEmail);
+            return marketplaceCatalog.snapshot().list(CatalogSnapshot.visibleTo(userId, true, null));
+        }
+        User currentUser = userService.getUserReference(userEmail);
         return itemRepository.findByStatusAndSellerNot(ItemStatus.ACTIVE, currentUser);
     }
 
+    public ItemPageDto getActiveItemsPageExceptUser(String userEmail, String cursor, int size, List<String> tags) {
+        Pageable limit = pageLimit(size);
+        if (marketplaceCatalog.isReady()) {
+            Long userId = userService.getUserId(userEmail);
+            ItemCursor position = cursor == null ? null : ItemCursor.decode(cursor);
+            List<Item> items = marketplaceCatalog.snapshot().page(CatalogSnapshot.visibleTo(userId, true, tags),
+                    position, limit.getPageSize());
+            return toPage(items, limit.getPageSize() - 1);
+        }
+        User currentUser = userService.getUserReference(userEmail);
+        boolean tagged = tags != null && !tags.isEmpty();
+        ItemCursor position = cursor == null ? null : ItemCursor.decode(cursor);
+        List<Item> items;
+        if (position == null) {
+            items = tagged
+                    ? itemRepository.findFirstPageByStatusAndSellerNotAndTagIn(ItemStatus.ACTIVE, currentUser, tags,
+                            limit)
+                    : itemRepository.findFirstPageByStatusAndSellerNot(ItemStatus.ACTIVE, currentUser, limit);
+        } else {
+            items = tagged
+                    ? itemRepository.findPageByStatusAndSellerNotAndTagInBefore(ItemStatus.ACTIVE, currentUser, tags,
+                            position.getListingDate(), position.getId(), limit)
+                    : itemRepository.findPageByStatusAndSellerNotBefore(ItemStatus.ACTIVE, currentUser,
+                            position.getListingDate(), position.getId(), limit);
+        }
+        return toPage(items, limit.getPageSize() - 1);
+    }
+
+    private Pageable pageLimit(int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return PageRequest.ofSize(pageSize + 1);
+    }
+
+    private ItemPageDto toPage(List<Item> items, int pageSize) {
+        if (items.size() <= pageSize) {
+            return new ItemPageDto(items, null);
+        }
+        List<Item> page = new ArrayList<>(items.subList(0, pageSize));
+        return new ItemPageDto(page, ItemCursor.of(page.get(pageSize - 1)).encode());
+    }
+
     @Cacheable(value = "activeItemsByUser", key = "#userEmail")
     public List<Item> getActiveItemsByUser(String userEmail) {
-        User user = userService.getUserByEmail(userEmail);
+        User user = userService.getUserReference(userEmail);
         if (user == null) {
             throw new RuntimeException("User not found");
         }
@@ -251,7 +326,7 @@ public class ItemService {
 
     @Cacheable(value = "soldItemsByUser", key = "#userEmail")
     public List<Item> getSoldItemsByUser(String userEmail) {
-        User user = userService.getUserByEmail(userEmail);
+        User user = userService.getUserReference(userEmail);
         if (user == null) {
             throw new RuntimeException("User not found");
         }
@@ -267,18 +342,22 @@ public class ItemService {
         item.setStatus(ItemStatus.SOLD);
         item.setBuyer(buyer);
         item.setPurchaseDate(purchaseDate);
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.statusChanged(savedItem));
+        return savedItem;
     }
 
     public Item reactivateItem(Long itemId, String userEmail) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> new RuntimeException("Item not found"));
         item.setStatus(ItemStatus.ACTIVE);
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.statusChanged(savedItem));
+        return savedItem;
     }
 
     @Cacheable(value = "purchasedItemsByUser", key = "#userEmail")
     public List<Item> getPurchasedItemsByUser(String userEmail) {
-        User user = userService.getUserByEmail(userEmail);
+        User user = userService.getUserReference(userEmail);
         return itemRepository.findByBuyerAndStatus(user, ItemStatus.SOLD);
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.beaver_bargains.service;
+
+import com.example.beaver_bargains.entity.Message;
+
+import lombok.Getter;
+
+/**
+ * Published by {@link MessageService#sendMessage} once the message is saved.
+ */
+@Getter
+public class MessageSentEvent {
+    private final Message message;
+
+    public MessageSentEvent(Message message) {
+        this.message = message;
+    }
+}
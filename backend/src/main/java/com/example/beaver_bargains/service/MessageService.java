@@ -1,27 +1,43 @@
 package com.example.beaver_bargains.service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.example.beaver_bargains.dto.MessagePageDto;
+import com.example.beaver_bargains.dto.MessageView;
 import com.example.beaver_bargains.dto.UserDto;
 import com.example.beaver_bargains.entity.Conversation;
 import com.example.beaver_bargains.entity.Message;
 import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.messaging.MessageTailCache;
 import com.example.beaver_bargains.repository.ConversationRepository;
+import com.example.beaver_bargains.repository.ConversationRepository.ConversationUpsert;
 import com.example.beaver_bargains.repository.MessageRepository;
 import com.example.beaver_bargains.service.CustomExceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.transaction.Transactional;
 
 @Service
 public class MessageService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int CONVERSATION_ID_CACHE_SIZE = 100_000;
+
     @Autowired
     private ConversationRepository conversationRepository;
 
@@ -31,26 +47,68 @@ public class MessageService {
     @Autowired
     private UserService userService;
 
-    @Caching(evict = {
-            @CacheEvict(value = "userConversations", key = "#senderEmail"),
-            @CacheEvict(value = "userConversations", key = "#result.user2.email"),
-            @CacheEvict(value = "conversationUsers", allEntries = true)
-    })
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MessageTailCache messageTailCache;
+
+    @Autowired
+    private InboxService inboxService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Cache<ConversationPair, Long> conversationIds = Caffeine.newBuilder()
+            .maximumSize(CONVERSATION_ID_CACHE_SIZE)
+            .build();
+
+    /**
+     * Returns the conversation between the two users, creating it if needed.
+     * A known pair costs one primary key lookup. An unknown pair first looks
+     * the row up by participants and only upserts when it is missing, since
+     * the upsert's no-op update rewrites and locks an existing row until
+     * commit. The upsert also makes concurrent first messages agree on one
+     * row.
+     */
+    @Transactional
     public Conversation getOrCreateConversation(String senderEmail, Long receiverId) {
-        User sender = userService.getUserByEmail(senderEmail);
-        UserDto receiverDto = userService.getUserDetails(receiverId);
-        User receiver = receiverDto.toUser();
-
-        Optional<Conversation> existingConversation = conversationRepository.findByUser1AndUser2OrUser1AndUser2(sender,
-                receiver, receiver, sender);
-
-        return existingConversation.orElseGet(() -> {
-            Conversation newConversation = new Conversation();
-            newConversation.setUser1(sender);
-            newConversation.setUser2(receiver);
-            newConversation.setLastMessageTimestamp(Instant.now());
-            return conversationRepository.save(newConversation);
-        });
+        if (receiverId == null) {
+            throw new IllegalArgumentException("Receiver id is required");
+        }
+        Long senderId = userService.getUserId(senderEmail);
+        ConversationPair pair = ConversationPair.of(senderId, receiverId);
+
+        Long cachedId = conversationIds.getIfPresent(pair);
+        if (cachedId != null) {
+            Optional<Conversation> cached = conversationRepository.findWithParticipantsById(cachedId);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+            conversationIds.invalidate(pair);
+        }
+
+        Long conversationId = conversationRepository.findIdByParticipants(pair.user1Id(), pair.user2Id())
+                .orElse(null);
+        boolean created = false;
+        if (conversationId == null) {
+            userService.getUserById(receiverId);
+            ConversationUpsert upsert = conversationRepository.upsert(pair.user1Id(), pair.user2Id(), Instant.now());
+            conversationId = upsert.getId();
+            created = Boolean.TRUE.equals(upsert.getCreated());
+        }
+        Conversation conversation = conversationRepository.findWithParticipantsById(conversationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
+        conversationIds.put(pair, conversation.getId());
+
+        if (created) {
+            inboxService.conversationCreated(conversation);
+            for (User participant : List.of(conversation.getUser1(), conversation.getUser2())) {
+                cacheManager.getCache("userConversations").evict(participant.getEmail());
+                cacheManager.getCache("conversationUsers").evict(participant.getEmail());
+            }
+        }
+        return conversation;
     }
 
     @Cacheable(value = "userConversations", key = "#userEmail")
@@ -72,11 +130,16 @@ public class MessageService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Only the two participants' conversation lists change. Their counterpart
+     * lists do not, since the conversation already exists.
+     */
     @Caching(evict = {
-            @CacheEvict(value = "userConversations", allEntries = true),
-            @CacheEvict(value = "conversationMessages", key = "#conversationId"),
-            @CacheEvict(value = "conversationUsers", allEntries = true)
+            @CacheEvict(value = "userConversations", key = "#senderEmail"),
+            @CacheEvict(value = "userConversations", key = "#result.receiver.email"),
+            @CacheEvict(value = "unreadMessages", key = "#result.receiver.id")
     })
+    @Transactional
     public Message sendMessage(String senderEmail, Long conversationId, String content) {
         User sender = userService.getUserByEmail(senderEmail);
         Conversation conversation = conversationRepository.findById(conversationId)
@@ -92,13 +155,91 @@ public class MessageService {
         message.setContent(content);
         message.setTimestamp(Instant.now());
 
-        return messageRepository.save(message);
+        Message savedMessage = messageRepository.save(message);
+        conversation.setLastMessageTimestamp(savedMessage.getTimestamp());
+        inboxService.messageSent(savedMessage);
+        eventPublisher.publishEvent(new MessageSentEvent(savedMessage));
+        return savedMessage;
+    }
+
+    public boolean isParticipant(Long conversationId, String userEmail) {
+        return conversationRepository.isParticipant(conversationId, userService.getUserId(userEmail));
     }
 
-    @Cacheable(value = "conversationMessages", key = "#conversationId")
     public List<Message> getConversationMessages(Long conversationId) {
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
-        return messageRepository.findByConversationOrderByTimestampAsc(conversation);
+        List<Message> messages = messageRepository.findByConversationOrderByTimestampAsc(conversation);
+        for (Message message : messages) {
+            message.setIsRead(message.getId() <= conversation.getLastReadMessageId(message.getReceiver().getId()));
+        }
+        return messages;
+    }
+
+    /**
+     * A page of history ending just before {@code beforeId}, or the newest
+     * page when it is null. The newest page comes from the cached tail.
+     */
+    public MessagePageDto getMessageHistory(Long conversationId, Long beforeId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        List<MessageView> page;
+        boolean hasMore;
+        if (beforeId == null && pageSize <= MessageTailCache.SIZE) {
+            List<MessageView> tail = getTail(conversationId);
+            page = new ArrayList<>(tail.subList(Math.max(0, tail.size() - pageSize), tail.size()));
+            hasMore = tail.size() > pageSize || tail.size() == MessageTailCache.SIZE;
+        } else {
+            PageRequest request = PageRequest.of(0, pageSize + 1);
+            List<MessageView> newestFirst = beforeId == null
+                    ? messageRepository.findLatestViews(conversationId, request)
+                    : messageRepository.findViewsBefore(conversationId, beforeId, request);
+            hasMore = newestFirst.size() > pageSize;
+            page = new ArrayList<>(newestFirst.subList(0, Math.min(pageSize, newestFirst.size())));
+            Collections.reverse(page);
+        }
+        return new MessagePageDto(page, hasMore && !page.isEmpty() ? page.get(0).getId() : null);
+    }
+
+    /**
+     * Messages newer than {@code sinceId} in ascending order, for clients
+     * catching up on a conversation they already have loaded.
+     */
+    public List<MessageView> getMessagesSince(Long conversationId, Long sinceId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        List<MessageView> tail = messageTailCache.get(conversationId);
+        if (tail != null && (tail.size() < MessageTailCache.SIZE || tail.get(0).getId() <= sinceId)) {
+            return tail.stream().filter(message -> message.getId() > sinceId).limit(pageSize)
+                    .collect(Collectors.toList());
+        }
+        return messageRepository.findViewsSince(conversationId, sinceId, PageRequest.of(0, pageSize));
+    }
+
+    private List<MessageView> getTail(Long conversationId) {
+        List<MessageView> tail = messageTailCache.get(conversationId);
+        if (tail != null) {
+            return tail;
+        }
+        List<MessageView> newestFirst = messageRepository.findLatestViews(conversationId,
+                PageRequest.of(0, MessageTailCache.SIZE));
+        messageTailCache.put(conversationId, newestFirst);
+        List<MessageView> loaded = new ArrayList<>(newestFirst);
+        Collections.reverse(loaded);
+        // A message committed between the query and the seed had no tail to
+        // append to; merge anything newer than the snapshot after seeding.
+        long newestId = newestFirst.isEmpty() ? 0 : newestFirst.get(0).getId();
+        List<MessageView> missed = messageRepository.findViewsSince(conversationId, newestId,
+                PageRequest.of(0, MessageTailCache.SIZE));
+        if (!missed.isEmpty()) {
+            messageTailCache.addIfCached(conversationId, missed);
+            loaded.addAll(missed);
+            loaded = new ArrayList<>(loaded.subList(Math.max(0, loaded.size() - MessageTailCache.SIZE), loaded.size()));
+        }
+        return loaded;
+    }
+
+    private record ConversationPair(long user1Id, long user2Id) {
+        static ConversationPair of(long userId, long otherUserId) {
+            return new ConversationPair(Math.min(userId, otherUserId), Math.max(userId, otherUserId));
+        }
     }
-}
\ No newline at end of file
+}
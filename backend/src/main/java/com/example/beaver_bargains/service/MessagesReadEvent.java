@@ -0,0 +1,22 @@
+package com.example.beaver_bargains.service;
+
+import lombok.Getter;
+
+/**
+ * Published when a user marks {@code count} messages of a conversation as
+ * read.
+ */
+@Getter
+public class MessagesReadEvent {
+    private final Long userId;
+    private final String userEmail;
+    private final Long conversationId;
+    private final int count;
+
+    public MessagesReadEvent(Long userId, String userEmail, Long conversationId, int count) {
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.conversationId = conversationId;
+        this.count = count;
+    }
+}
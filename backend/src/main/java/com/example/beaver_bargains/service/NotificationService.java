@@ -1,19 +1,24 @@
 package com.example.beaver_bargains.service;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.example.beaver_bargains.entity.Message;
-import com.example.beaver_bargains.entity.User;
+import com.example.beaver_bargains.messaging.UnreadCounters;
+import com.example.beaver_bargains.repository.ConversationRepository;
 import com.example.beaver_bargains.repository.MessageRepository;
-import com.example.beaver_bargains.repository.UserRepository;
 import com.example.beaver_bargains.service.CustomExceptions.ResourceNotFoundException;
 
+import jakarta.transaction.Transactional;
+
 @Service
 public class NotificationService {
 
@@ -21,42 +26,103 @@ public class NotificationService {
     private MessageRepository messageRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UnreadCounters unreadCounters;
+
+    @Autowired
+    private InboxService inboxService;
+
+    @Autowired
+    private CacheManager cacheManager;
 
-    @Cacheable(value = "unreadMessageCount", key = "#userId")
     public long getUnreadMessageCount(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        return messageRepository.countByReceiverAndIsReadFalse(user);
+        return unreadCounters.getTotal(userId);
+    }
+
+    /**
+     * Unread counts per conversation id for conversations that have any.
+     */
+    public Map<Long, Long> getUnreadCountsByConversation(Long userId) {
+        Map<Long, Long> counts = new HashMap<>();
+        unreadCounters.getCounts(userId).forEach((field, count) -> {
+            if (!UnreadCounters.TOTAL.equals(field) && count > 0) {
+                counts.put(Long.valueOf(field), count);
+            }
+        });
+        return counts;
     }
 
     @Cacheable(value = "unreadMessages", key = "#userId")
     public List<Message> getUnreadMessages(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        return messageRepository.findByReceiverAndIsReadFalse(user);
+        userService.getUserById(userId);
+        return messageRepository.findUnreadByReceiverId(userId);
     }
 
-    @Caching(evict = {
-            @CacheEvict(value = "unreadMessageCount", key = "#result.receiver.id"),
-            @CacheEvict(value = "unreadMessages", key = "#result.receiver.id")
-    })
-    public Message markMessageAsRead(Long messageId) {
-        Message message = messageRepository.findById(messageId)
+    @Transactional
+    public int markMessageAsRead(Long messageId, String userEmail) {
+        Long conversationId = messageRepository.findConversationIdById(messageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Message not found"));
-        message.setIsRead(true);
-        return messageRepository.save(message);
-    }
-
-    @Caching(evict = {
-            @CacheEvict(value = "unreadMessageCount", key = "#result.id"),
-            @CacheEvict(value = "unreadMessages", key = "#result.id")
-    })
-    public User markConversationAsRead(Long conversationId, String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        List<Message> unreadMessages = messageRepository.findByConversationIdAndReceiverAndIsReadFalse(conversationId,
-                user);
-        unreadMessages.forEach(message -> message.setIsRead(true));
-        messageRepository.saveAll(unreadMessages);
-        return user;
-    }
-}
\ No newline at end of file
+        return markConversationReadUpTo(conversationId, messageId, userEmail);
+    }
+
+    /**
+     * Acknowledges the given messages of one conversation. Read state is a
+     * watermark, so this marks everything up to the newest of them as read.
+     * Returns how many messages changed.
+     */
+    @Transactional
+    public int markMessagesAsRead(Long conversationId, Collection<Long> messageIds, String userEmail) {
+        if (messageIds == null || messageIds.isEmpty()) {
+            return 0;
+        }
+        return messageRepository.findLastMessageIdIn(conversationId, messageIds)
+                .map(upTo -> markConversationReadUpTo(conversationId, upTo, userEmail))
+                .orElse(0);
+    }
+
+    /**
+     * Moves the user's read watermark on the conversation forward to
+     * {@code upToMessageId}: one UPDATE of the conversation row, however many
+     * messages that covers. Returns how many received messages became read.
+     */
+    @Transactional
+    public int markConversationReadUpTo(Long conversationId, Long upToMessageId, String userEmail) {
+        Long userId = userService.getUserId(userEmail);
+        long watermark = conversationRepository.findReadWatermarkForUpdate(conversationId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
+        if (upToMessageId <= watermark) {
+            return 0;
+        }
+        int updated = (int) messageRepository.countReceivedBetween(conversationId, userId, watermark, upToMessageId);
+        conversationRepository.advanceReadWatermark(conversationId, userId, upToMessageId);
+        inboxService.messagesRead(userId, conversationId, updated);
+        afterRead(userId, userEmail, conversationId, updated);
+        return updated;
+    }
+
+    @Transactional
+    public int markConversationAsRead(Long conversationId, String userEmail) {
+        return messageRepository.findLastMessageId(conversationId)
+                .map(upTo -> markConversationReadUpTo(conversationId, upTo, userEmail))
+                .orElse(0);
+    }
+
+    /**
+     * Counters and pushes are adjusted by the affected row count rather than
+     * recounted.
+     */
+    private void afterRead(Long userId, String userEmail, Long conversationId, int count) {
+        if (count > 0) {
+            cacheManager.getCache("unreadMessages").evict(userId);
+            eventPublisher.publishEvent(new MessagesReadEvent(userId, userEmail, conversationId, count));
+        }
+    }
+}
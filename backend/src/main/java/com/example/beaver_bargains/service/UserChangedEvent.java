@@ -0,0 +1,16 @@
+package com.example.beaver_bargains.service;
+
+import lombok.Getter;
+
+/**
+ * Published when profile fields that are embedded in item listings (name,
+ * bio, profile image) change.
+ */
+@Getter
+public class UserChangedEvent {
+    private final Long userId;
+
+    public UserChangedEvent(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.beaver_bargains.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.example.beaver_bargains.entity.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Per-request identity map in front of the user lookups. Within one request
+ * the same user is loaded from the repository at most once, whether it is
+ * asked for by email or by id. Outside a request scope every lookup goes
+ * straight to the loader.
+ */
+@Component
+public class UserIdentityMap {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final DistributionSummary avoidedPerRequest;
+
+    public UserIdentityMap(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("users.identity_map.lookups").tag("result", "hit")
+                .description("User lookups answered from the request identity map").register(meterRegistry);
+        this.misses = Counter.builder("users.identity_map.lookups").tag("result", "miss")
+                .description("User lookups that went to the repository").register(meterRegistry);
+        this.avoidedPerRequest = DistributionSummary.builder("users.identity_map.avoided_per_request")
+                .description("Repository user lookups avoided per request").register(meterRegistry);
+    }
+
+    public boolean begin() {
+        if (SCOPE.get() != null) {
+            return false;
+        }
+        SCOPE.set(new Scope());
+        return true;
+    }
+
+    public void end() {
+        Scope scope = SCOPE.get();
+        SCOPE.remove();
+        if (scope != null) {
+            avoidedPerRequest.record(scope.hits);
+        }
+    }
+
+    public Optional<User> findByEmail(String email, Supplier<Optional<User>> loader) {
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            return loader.get();
+        }
+        User user = scope.byEmail.get(email);
+        if (user != null) {
+            scope.hits++;
+            hits.increment();
+            return Optional.of(user);
+        }
+        misses.increment();
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(scope::put);
+        return loaded;
+    }
+
+    public Optional<User> findById(Long id, Supplier<Optional<User>> loader) {
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            return loader.get();
+        }
+        User user = scope.byId.get(id);
+        if (user != null) {
+            scope.hits++;
+            hits.increment();
+            return Optional.of(user);
+        }
+        misses.increment();
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(scope::put);
+        return loaded;
+    }
+
+    public void put(User user) {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.put(user);
+        }
+    }
+
+    public void evict(User user) {
+        Scope scope = SCOPE.get();
+        if (scope != null) {
+            scope.byId.remove(user.getId());
+            scope.byEmail.remove(user.getEmail());
+        }
+    }
+
+    private static class Scope {
+        private final Map<String, User> byEmail = new HashMap<>();
+        private final Map<Long, User> byId = new HashMap<>();
+        private int hits;
+
+        private void put(User user) {
+            byId.put(user.getId(), user);
+            byEmail.put(user.getEmail(), user);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.beaver_bargains.service;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -19,6 +23,8 @@ import com.example.beaver_bargains.dto.UserUpdateDto;
 import com.example.beaver_bargains.entity.User;
 import com.example.beaver_bargains.repository.UserRepository;
 import com.example.beaver_bargains.security.CustomUserDetails;
+import com.example.beaver_bargains.security.JwtPrincipal;
+import com.example.beaver_bargains.security.TokenRevocationService;
 import com.example.beaver_bargains.service.CustomExceptions.EmailAlreadyExistsException;
 import com.example.beaver_bargains.service.CustomExceptions.InvalidEmailDomainException;
 import com.example.beaver_bargains.service.CustomExceptions.ResourceNotFoundException;
@@ -37,6 +43,15 @@ public class UserService implements UserDetailsService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserIdentityMap userIdentityMap;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public User registerUser(UserRegistrationDto registrationDto) {
         if (userRepository.existsByEmail(registrationDto.getEmail())) {
             throw new EmailAlreadyExistsException("Email already associated with a registered account");
@@ -66,7 +81,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new ResourceNotFoundException("Invalid verification token"));
         user.setEmailVerified(true);
         user.setVerificationToken(null);
-        return userRepository.save(user);
+        return save(user);
     }
 
     public User authenticateUser(UserLoginDto loginDto) {
@@ -79,22 +94,39 @@ public class UserService implements UserDetailsService {
     }
 
     public Long getUserId(String email) {
+        JwtPrincipal principal = currentPrincipal(email);
+        if (principal != null) {
+            return principal.getId();
+        }
         User user = getUserByEmail(email);
         return user.getId();
     }
 
+    /**
+     * Returns the user for query predicates and associations. For the
+     * authenticated caller this is an uninitialized reference built from the
+     * token's user id, so no row is loaded unless other fields are read.
+     */
+    public User getUserReference(String email) {
+        JwtPrincipal principal = currentPrincipal(email);
+        if (principal != null) {
+            return userRepository.getReferenceById(principal.getId());
+        }
+        return getUserByEmail(email);
+    }
+
     public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userIdentityMap.findById(userId, () -> userRepository.findById(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
     }
 
     public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return userIdentityMap.findByEmail(email, () -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
     public boolean userExists(String email) {
-        return userRepository.findByEmail(email).isPresent();
+        return userIdentityMap.findByEmail(email, () -> userRepository.findByEmail(email)).isPresent();
     }
 
     @Override
@@ -111,7 +143,8 @@ public class UserService implements UserDetailsService {
     public UserDto updateBiography(Long userId, UserUpdateDto userUpdateDto) {
         User user = getUserById(userId);
         user.setBio(userUpdateDto.getBio());
-        user = userRepository.save(user);
+        user = save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
         return new UserDto(user);
     }
 
@@ -121,7 +154,9 @@ public class UserService implements UserDetailsService {
             throw new BadCredentialsException("Invalid old password");
         }
         user.setPassword(passwordEncoder.encode(newPassword));
-        return userRepository.save(user);
+        User savedUser = save(user);
+        tokenRevocationService.revokeTokensIssuedBefore(userId, Instant.now());
+        return savedUser;
     }
 
     public UserDto updateProfileImage(Long userId, MultipartFile image) {
@@ -134,7 +169,8 @@ public class UserService implements UserDetailsService {
             }
 
             user.setProfileImageUrl(imageUrl);
-            user = userRepository.save(user);
+            user = save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(userId));
             return new UserDto(user);
         } catch (IOException e) {
             throw new RuntimeException("Failed to process the image file", e);
@@ -147,7 +183,8 @@ public class UserService implements UserDetailsService {
         if (user.getProfileImageUrl() != null) {
             fileStorageService.deleteFile(user.getProfileImageUrl());
             user.setProfileImageUrl(null);
-            user = userRepository.save(user);
+            user = save(user);
+            eventPublisher.publishEvent(new UserChangedEvent(userId));
         }
         return new UserDto(user);
     }
@@ -155,6 +192,23 @@ public class UserService implements UserDetailsService {
     public void deleteUser(Long userId) {
         User user = getUserById(userId);
         userRepository.delete(user);
+        userIdentityMap.evict(user);
+        tokenRevocationService.revokeTokensIssuedBefore(userId, Instant.now());
+    }
+
+    private User save(User user) {
+        User savedUser = userRepository.save(user);
+        userIdentityMap.put(savedUser);
+        return savedUser;
+    }
+
+    private JwtPrincipal currentPrincipal(String email) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal
+                && principal.getEmail().equals(email)) {
+            return principal;
+        }
+        return null;
     }
 
     private String generateVerificationToken() {
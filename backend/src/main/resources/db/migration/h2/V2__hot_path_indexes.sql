@@ -0,0 +1,20 @@
+-- Same indexes as postgresql/V2__hot_path_indexes.sql. H2 has no partial
+-- indexes, so the filtered column leads the key instead.
+
+CREATE INDEX idx_item_active_feed ON item (status, listing_date DESC, id DESC, user_id);
+CREATE INDEX idx_item_seller_status_listing ON item (user_id, status, listing_date DESC);
+CREATE INDEX idx_item_listing ON item (listing_date DESC, id DESC);
+CREATE INDEX idx_item_buyer_status ON item (buyer_id, status);
+
+CREATE INDEX idx_item_images_item ON item_images (item_id);
+CREATE INDEX idx_item_tags_item ON item_tags (item_id, tag);
+CREATE INDEX idx_item_tags_tag ON item_tags (tag, item_id);
+
+CREATE INDEX idx_message_conversation_timestamp ON message (conversation_id, "timestamp");
+CREATE INDEX idx_message_receiver_unread ON message (receiver_id, is_read, conversation_id);
+
+CREATE INDEX idx_favorites_user_item ON favorites (user_id, item_id);
+CREATE INDEX idx_favorites_item ON favorites (item_id);
+
+CREATE INDEX idx_conversation_user1 ON conversation (user1_id, user2_id);
+CREATE INDEX idx_conversation_user2 ON conversation (user2_id, user1_id);
@@ -0,0 +1,2 @@
+-- The tsvector column only exists on PostgreSQL; kept so versions line up.
+SELECT 1;
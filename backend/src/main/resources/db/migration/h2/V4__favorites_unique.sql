@@ -0,0 +1,9 @@
+-- Drop duplicate favorites left by double-clicks, then make (user_id, item_id)
+-- unique so inserts can use ON CONFLICT DO NOTHING. The unique index replaces
+-- idx_favorites_user_item.
+DELETE FROM favorites f
+WHERE EXISTS (SELECT 1 FROM favorites d WHERE d.user_id = f.user_id AND d.item_id = f.item_id AND d.id < f.id);
+
+ALTER TABLE favorites ADD CONSTRAINT uk_favorites_user_item UNIQUE (user_id, item_id);
+
+DROP INDEX IF EXISTS idx_favorites_user_item;
@@ -0,0 +1,2 @@
+-- MessageRepository.findViewsBefore / findViewsSince page by (conversation_id, id).
+CREATE INDEX idx_message_conversation_id ON message (conversation_id, id);
@@ -0,0 +1,46 @@
+-- Conversations are stored with user1_id <= user2_id so each pair has exactly
+-- one row. Duplicates created by concurrent first messages are merged into
+-- the oldest conversation of the pair first.
+CREATE TABLE conversation_merge AS
+SELECT c.id AS duplicate_id, k.keep_id
+FROM conversation c
+JOIN (SELECT LEAST(user1_id, user2_id) AS low_id, GREATEST(user1_id, user2_id) AS high_id, MIN(id) AS keep_id
+      FROM conversation
+      GROUP BY LEAST(user1_id, user2_id), GREATEST(user1_id, user2_id)) k
+  ON LEAST(c.user1_id, c.user2_id) = k.low_id AND GREATEST(c.user1_id, c.user2_id) = k.high_id
+WHERE c.id <> k.keep_id;
+
+UPDATE message m
+SET conversation_id = (SELECT cm.keep_id FROM conversation_merge cm WHERE cm.duplicate_id = m.conversation_id)
+WHERE m.conversation_id IN (SELECT duplicate_id FROM conversation_merge);
+
+UPDATE conversation c
+SET last_message_timestamp = (SELECT MAX(d.last_message_timestamp) FROM conversation d
+                              WHERE d.id = c.id
+                                 OR d.id IN (SELECT cm.duplicate_id FROM conversation_merge cm WHERE cm.keep_id = c.id))
+WHERE c.id IN (SELECT keep_id FROM conversation_merge);
+
+DELETE FROM conversation_inbox WHERE conversation_id IN (SELECT duplicate_id FROM conversation_merge);
+
+UPDATE conversation_inbox e
+SET last_message_id = (SELECT MAX(m.id) FROM message m WHERE m.conversation_id = e.conversation_id),
+    unread_count = (SELECT COUNT(*) FROM message m
+                    WHERE m.conversation_id = e.conversation_id AND m.receiver_id = e.user_id AND m.is_read = FALSE)
+WHERE e.conversation_id IN (SELECT keep_id FROM conversation_merge);
+
+UPDATE conversation_inbox e
+SET last_message_preview = (SELECT SUBSTRING(m.content, 1, 100) FROM message m WHERE m.id = e.last_message_id),
+    last_message_at = (SELECT c.last_message_timestamp FROM conversation c WHERE c.id = e.conversation_id)
+WHERE e.conversation_id IN (SELECT keep_id FROM conversation_merge);
+
+DELETE FROM conversation WHERE id IN (SELECT duplicate_id FROM conversation_merge);
+
+DROP TABLE conversation_merge;
+
+UPDATE conversation SET user1_id = user2_id, user2_id = user1_id WHERE user1_id > user2_id;
+
+ALTER TABLE conversation ADD CONSTRAINT uk_conversation_participants UNIQUE (user1_id, user2_id);
+ALTER TABLE conversation ADD CONSTRAINT ck_conversation_participant_order CHECK (user1_id <= user2_id);
+
+-- Covered by uk_conversation_participants.
+DROP INDEX IF EXISTS idx_conversation_user1;
@@ -0,0 +1,10 @@
+-- Images keep their list position so the first uploaded image stays first.
+-- Existing rows are numbered in insertion order, which is the order Hibernate
+-- inserted each item's list in.
+ALTER TABLE item_images ADD COLUMN image_order INTEGER;
+
+UPDATE item_images i
+SET image_order = (SELECT COUNT(*) FROM item_images o WHERE o.item_id = i.item_id AND o._ROWID_ < i._ROWID_);
+
+ALTER TABLE item_images ALTER COLUMN image_order SET NOT NULL;
+ALTER TABLE item_images ADD PRIMARY KEY (item_id, image_order);
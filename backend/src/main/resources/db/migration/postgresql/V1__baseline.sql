@@ -0,0 +1,59 @@
+-- Schema as previously generated by hibernate.ddl-auto=update. Existing
+-- databases are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id BIGSERIAL PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    email VARCHAR(255) UNIQUE,
+    password VARCHAR(255),
+    bio VARCHAR(255),
+    profile_image_url VARCHAR(255),
+    email_verified BOOLEAN NOT NULL,
+    verification_token VARCHAR(255) UNIQUE
+);
+
+CREATE TABLE item (
+    id BIGSERIAL PRIMARY KEY,
+    title VARCHAR(255),
+    description VARCHAR(255),
+    price NUMERIC(38, 2),
+    listing_date TIMESTAMP(6),
+    purchase_date TIMESTAMP(6),
+    status VARCHAR(255) CHECK (status IN ('ACTIVE', 'SOLD')),
+    user_id BIGINT REFERENCES users (id),
+    buyer_id BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE item_images (
+    item_id BIGINT NOT NULL REFERENCES item (id),
+    image_url VARCHAR(255)
+);
+
+CREATE TABLE item_tags (
+    item_id BIGINT NOT NULL REFERENCES item (id),
+    tag VARCHAR(255)
+);
+
+CREATE TABLE favorites (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    item_id BIGINT NOT NULL REFERENCES item (id)
+);
+
+CREATE TABLE conversation (
+    id BIGSERIAL PRIMARY KEY,
+    user1_id BIGINT NOT NULL REFERENCES users (id),
+    user2_id BIGINT NOT NULL REFERENCES users (id),
+    last_message_timestamp TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE message (
+    id BIGSERIAL PRIMARY KEY,
+    conversation_id BIGINT NOT NULL REFERENCES conversation (id),
+    sender_id BIGINT NOT NULL REFERENCES users (id),
+    receiver_id BIGINT NOT NULL REFERENCES users (id),
+    content VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    is_read BOOLEAN NOT NULL
+);
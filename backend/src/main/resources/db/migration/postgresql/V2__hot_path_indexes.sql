@@ -0,0 +1,33 @@
+-- One index per hot repository predicate. users.email and
+-- users.verification_token are already covered by their unique constraints.
+
+-- ItemRepository.findByStatusAndSellerNot, findFirstPageByStatusAndSellerNot,
+-- findPageByStatusAndSellerNotBefore: active feed in keyset order.
+CREATE INDEX idx_item_active_feed ON item (listing_date DESC, id DESC, user_id) WHERE status = 'ACTIVE';
+
+-- ItemRepository.findBySeller, findBySellerNot and the all-items keyset pages.
+CREATE INDEX idx_item_seller_status_listing ON item (user_id, status, listing_date DESC);
+CREATE INDEX idx_item_listing ON item (listing_date DESC, id DESC);
+
+-- ItemRepository.findByBuyerAndStatus.
+CREATE INDEX idx_item_buyer_status ON item (buyer_id, status) WHERE buyer_id IS NOT NULL;
+
+-- Element collections are always loaded by owner id (batched IN lists).
+CREATE INDEX idx_item_images_item ON item_images (item_id);
+CREATE INDEX idx_item_tags_item ON item_tags (item_id, tag);
+CREATE INDEX idx_item_tags_tag ON item_tags (tag, item_id);
+
+-- MessageRepository.findByConversationOrderByTimestampAsc.
+CREATE INDEX idx_message_conversation_timestamp ON message (conversation_id, timestamp);
+
+-- MessageRepository.countByReceiverAndIsReadFalse, findByReceiverAndIsReadFalse,
+-- findByConversationIdAndReceiverAndIsReadFalse.
+CREATE INDEX idx_message_receiver_unread ON message (receiver_id, conversation_id) WHERE is_read = false;
+
+-- FavoriteRepository.findByUser, findByUserAndItem, deleteByUserAndItem.
+CREATE INDEX idx_favorites_user_item ON favorites (user_id, item_id);
+CREATE INDEX idx_favorites_item ON favorites (item_id);
+
+-- ConversationRepository.findByUser1OrUser2 and the pair lookup.
+CREATE INDEX idx_conversation_user1 ON conversation (user1_id, user2_id);
+CREATE INDEX idx_conversation_user2 ON conversation (user2_id, user1_id);
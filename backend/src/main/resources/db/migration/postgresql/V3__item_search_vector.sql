@@ -0,0 +1,8 @@
+-- Weighted full-text vector for the postgres search strategy (title A,
+-- description B). Previously created at startup by PostgresItemSearch.
+ALTER TABLE item ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_item_search_vector ON item USING GIN (search_vector);
@@ -0,0 +1,43 @@
+-- Per-participant inbox rows maintained by MessageService, so the inbox is
+-- one indexed range scan instead of a join over conversations and messages.
+CREATE TABLE conversation_inbox (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    conversation_id BIGINT NOT NULL REFERENCES conversation (id),
+    counterpart_id BIGINT NOT NULL REFERENCES users (id),
+    counterpart_first_name VARCHAR(255),
+    counterpart_last_name VARCHAR(255),
+    counterpart_profile_image_url VARCHAR(255),
+    last_message_id BIGINT,
+    last_message_preview VARCHAR(255),
+    last_message_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    unread_count INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT uk_conversation_inbox_user_conversation UNIQUE (user_id, conversation_id)
+);
+
+-- ConversationInboxRepository.findFirstPage / findPageAfter.
+CREATE INDEX idx_conversation_inbox_user_recent ON conversation_inbox (user_id, last_message_at DESC, conversation_id DESC);
+-- Counterpart profile changes.
+CREATE INDEX idx_conversation_inbox_counterpart ON conversation_inbox (counterpart_id);
+
+-- Conversation.lastMessageTimestamp was never moved by sendMessage.
+UPDATE conversation c
+SET last_message_timestamp = (SELECT MAX(m."timestamp") FROM message m WHERE m.conversation_id = c.id)
+WHERE EXISTS (SELECT 1 FROM message m WHERE m.conversation_id = c.id);
+
+-- One row per participant. UNION drops the duplicate row of a conversation
+-- a user opened with themselves.
+INSERT INTO conversation_inbox (user_id, conversation_id, counterpart_id, counterpart_first_name,
+        counterpart_last_name, counterpart_profile_image_url, last_message_id, last_message_preview,
+        last_message_at, unread_count)
+SELECT p.user_id, p.conversation_id, u.id, u.first_name, u.last_name, u.profile_image_url,
+       last_message.id, SUBSTRING(last_message.content, 1, 100), p.last_message_timestamp,
+       (SELECT COUNT(*) FROM message m
+        WHERE m.conversation_id = p.conversation_id AND m.receiver_id = p.user_id AND m.is_read = FALSE)
+FROM (SELECT id AS conversation_id, user1_id AS user_id, user2_id AS counterpart_id, last_message_timestamp
+      FROM conversation
+      UNION
+      SELECT id, user2_id, user1_id, last_message_timestamp FROM conversation) p
+JOIN users u ON u.id = p.counterpart_id
+LEFT JOIN message last_message ON last_message.id =
+        (SELECT MAX(m.id) FROM message m WHERE m.conversation_id = p.conversation_id);
@@ -0,0 +1,29 @@
+-- Read state moves from a per-message is_read flag to one watermark per
+-- participant on the conversation: every message a participant received
+-- with an id up to their watermark counts as read.
+ALTER TABLE conversation ADD COLUMN user1_last_read_message_id BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE conversation ADD COLUMN user2_last_read_message_id BIGINT NOT NULL DEFAULT 0;
+
+-- Each watermark sits just below the participant's oldest unread message,
+-- or at the newest message when they have read everything.
+UPDATE conversation c
+SET user1_last_read_message_id = COALESCE(
+        (SELECT MIN(m.id) - 1 FROM message m
+         WHERE m.conversation_id = c.id AND m.receiver_id = c.user1_id AND m.is_read = FALSE),
+        (SELECT MAX(m.id) FROM message m WHERE m.conversation_id = c.id), 0),
+    user2_last_read_message_id = COALESCE(
+        (SELECT MIN(m.id) - 1 FROM message m
+         WHERE m.conversation_id = c.id AND m.receiver_id = c.user2_id AND m.is_read = FALSE),
+        (SELECT MAX(m.id) FROM message m WHERE m.conversation_id = c.id), 0);
+
+UPDATE conversation_inbox e
+SET unread_count = (SELECT COUNT(*) FROM message m JOIN conversation c ON c.id = m.conversation_id
+                    WHERE m.conversation_id = e.conversation_id AND m.receiver_id = e.user_id
+                      AND m.id > CASE WHEN c.user1_id = e.user_id THEN c.user1_last_read_message_id
+                                      ELSE c.user2_last_read_message_id END);
+
+DROP INDEX IF EXISTS idx_message_receiver_unread;
+ALTER TABLE message DROP COLUMN is_read;
+
+-- Unread counts are id ranges above the watermark per conversation and receiver.
+CREATE INDEX idx_message_conversation_receiver_id ON message (conversation_id, receiver_id, id);
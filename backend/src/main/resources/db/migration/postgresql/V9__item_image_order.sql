@@ -0,0 +1,13 @@
+-- Images keep their list position so the first uploaded image stays first.
+-- Existing rows are numbered in physical order, which is the order Hibernate
+-- inserted each item's list in.
+ALTER TABLE item_images ADD COLUMN image_order INTEGER;
+
+UPDATE item_images i
+SET image_order = r.position
+FROM (SELECT ctid AS row_ctid, ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY ctid) - 1 AS position
+      FROM item_images) r
+WHERE i.ctid = r.row_ctid;
+
+ALTER TABLE item_images ALTER COLUMN image_order SET NOT NULL;
+ALTER TABLE item_images ADD PRIMARY KEY (item_id, image_order);
@@ -0,0 +1,31 @@
+package com.example.beaver_bargains.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.beaver_bargains.dto.FavoriteIdSet;
+
+class CompactCacheSerializerTest {
+
+    private final CompactCacheSerializer serializer = new CompactCacheSerializer(256);
+
+    @Test
+    void favoriteIdSetsRoundTrip() {
+        List<Long> many = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            many.add(id * 3 + (id % 7));
+        }
+
+        for (FavoriteIdSet favorites : List.of(FavoriteIdSet.empty(), FavoriteIdSet.of(List.of(5L)),
+                FavoriteIdSet.of(List.of(2L, 1L << 40, 300L)), FavoriteIdSet.of(many))) {
+            Object copy = serializer.deserialize(serializer.serialize(favorites));
+
+            assertThat(copy).isInstanceOf(FavoriteIdSet.class);
+            assertThat(((FavoriteIdSet) copy).toList()).isEqualTo(favorites.toList());
+        }
+    }
+}
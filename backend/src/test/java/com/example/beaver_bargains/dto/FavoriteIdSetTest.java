@@ -0,0 +1,56 @@
+package com.example.beaver_bargains.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class FavoriteIdSetTest {
+
+    @Test
+    void containsPresentIdsOnly() {
+        FavoriteIdSet favorites = FavoriteIdSet.of(new long[] { 42, 7, 42, 1_000_000_007L, 0, -3 });
+
+        assertThat(favorites.toList()).containsExactly(7L, 42L, 1_000_000_007L);
+        assertThat(favorites.contains(7)).isTrue();
+        assertThat(favorites.contains(42)).isTrue();
+        assertThat(favorites.contains(1_000_000_007L)).isTrue();
+        assertThat(favorites.contains(8)).isFalse();
+        assertThat(favorites.contains(0)).isFalse();
+        assertThat(favorites.contains(-3)).isFalse();
+        assertThat(FavoriteIdSet.empty().contains(7)).isFalse();
+    }
+
+    @Test
+    void containsIdsThatShareAProbeSequence() {
+        // A dense block of ids fills half the table, so lookups have to walk
+        // past occupied slots for both hits and misses.
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 4096; id++) {
+            ids.add(id * 64);
+        }
+        FavoriteIdSet favorites = FavoriteIdSet.of(ids);
+
+        assertThat(favorites.size()).isEqualTo(ids.size());
+        for (long id : ids) {
+            assertThat(favorites.contains(id)).isTrue();
+            assertThat(favorites.contains(id + 1)).isFalse();
+        }
+    }
+
+    @Test
+    void withAddsAndRemoves() {
+        FavoriteIdSet favorites = FavoriteIdSet.of(List.of(3L, 5L, 9L));
+
+        FavoriteIdSet updated = favorites.with(List.of(1L, 5L, 11L), Set.of(9L, 11L));
+
+        assertThat(updated.toList()).containsExactly(1L, 3L, 5L);
+        assertThat(updated.contains(9)).isFalse();
+        assertThat(updated.contains(11)).isFalse();
+        assertThat(favorites.toList()).containsExactly(3L, 5L, 9L);
+        assertThat(favorites.with(List.of(), Set.of(3L, 5L, 9L)).size()).isZero();
+    }
+}
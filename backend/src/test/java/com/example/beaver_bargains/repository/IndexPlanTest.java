@@ -0,0 +1,63 @@
+package com.example.beaver_bargains.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * EXPLAINs the SQL behind each hot repository query against the migrated H2
+ * schema and fails if any of them falls back to a table scan.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plans;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class IndexPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // ItemRepository
+            "SELECT * FROM item WHERE status = 'ACTIVE' AND user_id <> 1 ORDER BY listing_date DESC, id DESC",
+            "SELECT * FROM item WHERE user_id = 1",
+            "SELECT * FROM item WHERE buyer_id = 1 AND status = 'SOLD'",
+            "SELECT * FROM item_images WHERE item_id IN (1, 2, 3)",
+            "SELECT * FROM item_tags WHERE item_id IN (1, 2, 3)",
+            // MessageRepository
+            "SELECT * FROM message WHERE conversation_id = 1 ORDER BY \"timestamp\"",
+            "SELECT * FROM message WHERE conversation_id = 1 AND id < 100 ORDER BY id DESC LIMIT 31",
+            "SELECT * FROM message WHERE conversation_id = 1 AND id > 100 ORDER BY id LIMIT 100",
+            "SELECT COUNT(*) FROM message WHERE conversation_id = 1 AND receiver_id = 1 AND id > 10 AND id <= 20",
+            "SELECT * FROM message WHERE conversation_id = 1 AND receiver_id = 1 AND id > 10 ORDER BY id",
+            // FavoriteRepository
+            "SELECT * FROM favorites WHERE user_id = 1",
+            "SELECT * FROM favorites WHERE user_id = 1 AND item_id = 2",
+            // ConversationRepository
+            "SELECT * FROM conversation WHERE user1_id = 1",
+            "SELECT * FROM conversation WHERE user2_id = 1",
+            "SELECT * FROM conversation WHERE user1_id = 1 AND user2_id = 2",
+            // ConversationInboxRepository
+            "SELECT * FROM conversation_inbox WHERE user_id = 1 ORDER BY last_message_at DESC, conversation_id DESC LIMIT 21",
+            "SELECT * FROM conversation_inbox WHERE counterpart_id = 1",
+            // UserRepository
+            "SELECT * FROM users WHERE email = 'someone@oregonstate.edu'",
+            "SELECT * FROM users WHERE verification_token = 'token'"
+    })
+    void hotQueryUsesAnIndex(String sql) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+    }
+}
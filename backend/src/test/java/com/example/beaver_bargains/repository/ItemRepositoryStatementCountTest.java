@@ -0,0 +1,176 @@
+package com.example.beaver_bargains.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.beaver_bargains.dto.ItemCard;
+import com.example.beaver_bargains.entity.Item;
+import com.example.beaver_bargains.entity.ItemStatus;
+import com.example.beaver_bargains.entity.User;
+
+/**
+ * Counts the SQL statements each list query needs, including touching the
+ * fields Jackson serializes (seller, buyer, images, tags). Runs on H2 in
+ * PostgreSQL mode against the Flyway schema.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ItemRepositoryStatementCountTest {
+
+    private static final int ITEMS_PER_SELLER = 15;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User viewer;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        viewer = persistUser("viewer@oregonstate.edu");
+        User buyer = persistUser("buyer@oregonstate.edu");
+        for (int s = 0; s < 3; s++) {
+            User seller = persistUser("seller" + s + "@oregonstate.edu");
+            for (int i = 0; i < ITEMS_PER_SELLER; i++) {
+                persistItem(seller, i % 5 == 0 ? buyer : null, s * ITEMS_PER_SELLER + i);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void marketplaceListLoadsInThreeStatements() {
+        assertStatements(3, () -> itemRepository.findByStatusAndSellerNot(ItemStatus.ACTIVE, viewer));
+    }
+
+    @Test
+    void allItemsLoadInThreeStatements() {
+        assertStatements(3, () -> itemRepository.findAll());
+    }
+
+    @Test
+    void sellerListingsLoadInThreeStatements() {
+        User seller = itemRepository.findAll().get(0).getSeller();
+        entityManager.clear();
+        statistics.clear();
+        assertStatements(3, () -> itemRepository.findBySeller(seller));
+    }
+
+    @Test
+    void feedPageLoadsInThreeStatements() {
+        assertStatements(3, () -> itemRepository.findFirstPageByStatusAndSellerNot(ItemStatus.ACTIVE, viewer,
+                PageRequest.ofSize(25)));
+    }
+
+    @Test
+    void taggedFeedPageFiltersInTheQuery() {
+        List<Item> page = itemRepository.findFirstPageByStatusAndSellerNotAndTagIn(ItemStatus.ACTIVE, viewer,
+                List.of("Tag1"), PageRequest.ofSize(10));
+        Item last = page.get(page.size() - 1);
+        List<Item> next = itemRepository.findPageByStatusAndSellerNotAndTagInBefore(ItemStatus.ACTIVE, viewer,
+                List.of("Tag1"), last.getListingDate(), last.getId(), PageRequest.ofSize(10));
+
+        // Every third item carries Tag1: 15 of 45.
+        assertThat(page).hasSize(10);
+        assertThat(next).hasSize(5);
+        assertThat(page).allSatisfy(item -> assertThat(item.getTags()).contains("Tag1"));
+        assertThat(next).allSatisfy(item -> assertThat(item.getTags()).contains("Tag1"));
+    }
+
+    @Test
+    void cardsWithoutTagsLoadInOneStatement() {
+        List<ItemCard> cards = itemRepository.findCardsByStatusAndSellerIdNot(ItemStatus.ACTIVE, viewer.getId());
+
+        assertThat(cards).hasSize(3 * ITEMS_PER_SELLER);
+        assertThat(cards).allSatisfy(card -> assertThat(card.getListingDate()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void cardsLoadInTwoStatements() {
+        List<ItemCard> cards = itemRepository.findCardsByStatusAndSellerIdNot(ItemStatus.ACTIVE, viewer.getId());
+        List<Long> ids = cards.stream().map(ItemCard::getId).toList();
+        List<ItemRepository.ItemTag> tags = itemRepository.findTagsByItemIdIn(ids);
+
+        assertThat(cards).hasSize(3 * ITEMS_PER_SELLER);
+        assertThat(cards).allSatisfy(card -> assertThat(card.getImageUrl()).endsWith("-b-first.jpg"));
+        assertThat(tags).hasSize(2 * 3 * ITEMS_PER_SELLER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private void assertStatements(long expected, Supplier<List<Item>> query) {
+        List<Item> items = query.get();
+        for (Item item : items) {
+            item.getSeller().getFirstName();
+            if (item.getBuyer() != null) {
+                item.getBuyer().getFirstName();
+            }
+            item.getImageUrls().size();
+            item.getTags().size();
+        }
+
+        assertThat(items).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+    }
+
+    private User persistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setPassword("password");
+        return entityManager.persist(user);
+    }
+
+    private void persistItem(User seller, User buyer, int index) {
+        Item item = new Item();
+        item.setTitle("Item " + index);
+        item.setDescription("Description " + index);
+        item.setPrice(BigDecimal.valueOf(index));
+        item.setListingDate(LocalDateTime.of(2024, 9, 1, 12, 0).plusMinutes(index));
+        List<String> imageUrls = new ArrayList<>();
+        imageUrls.add("/uploads/" + index + "-b-first.jpg");
+        imageUrls.add("/uploads/" + index + "-a-second.jpg");
+        item.setImageUrls(imageUrls);
+        item.setTags(new HashSet<>(Set.of("Books", "Tag" + (index % 3))));
+        item.setSeller(seller);
+        item.setStatus(ItemStatus.ACTIVE);
+        if (buyer != null) {
+            item.setBuyer(buyer);
+        }
+        entityManager.persist(item);
+    }
+}
@@ -8,6 +8,7 @@ import { Conversation } from "@/types/Conversation";
 import { Message } from "@/types/Message";
 import { MessageThreadProps } from "@/types/MessageThreadProps";
 import { SkeletonCard } from "@/components/ui/SkeletonCard";
+import { useUnreadMessages } from "./UnreadMessagesContext";
 
 const MessageThread: React.FC<MessageThreadProps> = ({
   userId,
@@ -25,6 +26,7 @@ const MessageThread: React.FC<MessageThreadProps> = ({
     initialConversationId,
   );
   const { token, isAuthenticated } = useAuth();
+  const { subscribeToMessages } = useUnreadMessages();
   const messagesEndRef = useRef<HTMLDivElement>(null);
   const router = useRouter();
   const [modalOpen, setModalOpen] = useState(false);
@@ -47,6 +49,29 @@ const MessageThread: React.FC<MessageThreadProps> = ({
     messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
   }, [messages]);
 
+  const appendMessage = (message: Message) => {
+    setMessages((prevMessages) =>
+      prevMessages.some((existing) => existing.id === message.id)
+        ? prevMessages
+        : [...prevMessages, message],
+    );
+  };
+
+  useEffect(() => {
+    if (!conversationId) return;
+    return subscribeToMessages((message) => {
+      if (message.conversation?.id !== Number(conversationId)) return;
+      appendMessage(message);
+      updateLastMessage(
+        message.conversation.id,
+        message.content,
+        message.sender.id,
+        message.timestamp,
+        message.sender.firstName,
+      );
+    });
+  }, [conversationId, subscribeToMessages]);
+
   const fetchReceiverInfo = async () => {
     if (!otherUserId) return;
     try {
@@ -152,7 +177,7 @@ const MessageThread: React.FC<MessageThreadProps> = ({
         { headers: { Authorization: `Bearer ${token}` } },
       );
 
-      setMessages((prevMessages) => [...prevMessages, response.data]);
+      appendMessage(response.data);
       setNewMessage("");
 
       updateLastMessage(
@@ -1,9 +1,22 @@
 "use client";
 
-import React, { createContext, useState, useContext, useEffect } from "react";
+import React, {
+  createContext,
+  useState,
+  useContext,
+  useEffect,
+  useCallback,
+  useRef,
+} from "react";
 import axios from "axios";
 import { useAuth } from "../../components/auth/AuthContext";
 import { UnreadMessagesContextType } from "@/types/UnreadMessageContextType";
+import { Message } from "@/types/Message";
+import { connectStomp } from "@/lib/stomp";
+
+const WS_URL = "wss://beaverbargains.onrender.com/ws";
+const MIN_RECONNECT_DELAY = 2000;
+const MAX_RECONNECT_DELAY = 60000;
 
 const UnreadMessagesContext = createContext<
   UnreadMessagesContextType | undefined
@@ -13,9 +26,12 @@ export const UnreadMessagesProvider: React.FC<{
   children: React.ReactNode;
 }> = ({ children }) => {
   const [unreadCount, setUnreadCount] = useState(0);
+  const [connected, setConnected] = useState(false);
   const { isAuthenticated, token, loading } = useAuth();
+  const connectedRef = useRef(false);
+  const messageListeners = useRef(new Set<(message: Message) => void>());
 
-  const fetchUnreadCount = async () => {
+  const loadUnreadCount = useCallback(async () => {
     if (isAuthenticated && token) {
       try {
         const response = await axios.get(
@@ -29,25 +45,100 @@ export const UnreadMessagesProvider: React.FC<{
         console.error("Error fetching unread message count:", error);
       }
     }
-  };
+  }, [isAuthenticated, token]);
+
+  // While the push connection is up the count is kept current by
+  // /user/queue/unread, so callers asking for a refresh cost nothing.
+  const fetchUnreadCount = useCallback(async () => {
+    if (!connectedRef.current) {
+      await loadUnreadCount();
+    }
+  }, [loadUnreadCount]);
 
   const clearUnreadCount = () => {
     setUnreadCount(0);
   };
 
+  const subscribeToMessages = useCallback(
+    (listener: (message: Message) => void) => {
+      messageListeners.current.add(listener);
+      return () => {
+        messageListeners.current.delete(listener);
+      };
+    },
+    [],
+  );
+
   useEffect(() => {
     if (!loading) {
       if (isAuthenticated) {
-        fetchUnreadCount();
+        loadUnreadCount();
       } else {
         clearUnreadCount();
       }
     }
-  }, [isAuthenticated, token, loading]);
+  }, [isAuthenticated, token, loading, loadUnreadCount]);
+
+  useEffect(() => {
+    if (loading || !isAuthenticated || !token) {
+      return;
+    }
+    let stopped = false;
+    let delay = MIN_RECONNECT_DELAY;
+    let reconnectTimer: ReturnType<typeof setTimeout> | undefined;
+    let connection: ReturnType<typeof connectStomp> | undefined;
+
+    const setPushConnected = (value: boolean) => {
+      connectedRef.current = value;
+      setConnected(value);
+    };
+
+    const open = () => {
+      connection = connectStomp({
+        url: WS_URL,
+        token,
+        onConnect: () => {
+          delay = MIN_RECONNECT_DELAY;
+          setPushConnected(true);
+          // Resynchronize once; pushes missed while disconnected are gone.
+          loadUnreadCount();
+        },
+        onClose: () => {
+          setPushConnected(false);
+          if (!stopped) {
+            reconnectTimer = setTimeout(open, delay);
+            delay = Math.min(delay * 2, MAX_RECONNECT_DELAY);
+          }
+        },
+      });
+      connection.subscribe("/user/queue/unread", (body) => {
+        const { delta } = JSON.parse(body) as { delta: number };
+        setUnreadCount((count) => Math.max(0, count + delta));
+      });
+      connection.subscribe("/user/queue/messages", (body) => {
+        const message = JSON.parse(body) as Message;
+        messageListeners.current.forEach((listener) => listener(message));
+      });
+    };
+
+    open();
+    return () => {
+      stopped = true;
+      clearTimeout(reconnectTimer);
+      connection?.close();
+      setPushConnected(false);
+    };
+  }, [isAuthenticated, token, loading, loadUnreadCount]);
 
   return (
     <UnreadMessagesContext.Provider
-      value={{ unreadCount, fetchUnreadCount, clearUnreadCount }}
+      value={{
+        unreadCount,
+        connected,
+        fetchUnreadCount,
+        clearUnreadCount,
+        subscribeToMessages,
+      }}
     >
       {children}
     </UnreadMessagesContext.Provider>
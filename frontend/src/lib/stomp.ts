@@ -0,0 +1,133 @@
+// Minimal STOMP 1.2 client over the browser WebSocket, enough to receive the
+// per-user pushes the backend sends to /user/queue/*.
+
+type FrameHandler = (body: string) => void;
+
+interface StompFrame {
+  command: string;
+  headers: Record<string, string>;
+  body: string;
+}
+
+export interface StompConnection {
+  subscribe: (destination: string, handler: FrameHandler) => void;
+  close: () => void;
+}
+
+export interface StompOptions {
+  url: string;
+  token: string;
+  onConnect: () => void;
+  onClose: () => void;
+}
+
+const NULL = "\u0000";
+
+const serialize = (
+  command: string,
+  headers: Record<string, string>,
+  body = "",
+) => {
+  const lines = Object.entries(headers).map(
+    ([name, value]) => `${name}:${value}`,
+  );
+  return `${command}\n${lines.join("\n")}\n\n${body}${NULL}`;
+};
+
+const parse = (raw: string): StompFrame | null => {
+  const frame = raw.replace(/^\n+/, "");
+  if (!frame) {
+    return null;
+  }
+  const headerEnd = frame.indexOf("\n\n");
+  const head = headerEnd < 0 ? frame : frame.slice(0, headerEnd);
+  const [command, ...headerLines] = head.split("\n");
+  const headers: Record<string, string> = {};
+  headerLines.forEach((line) => {
+    const separator = line.indexOf(":");
+    if (separator > 0 && !(line.slice(0, separator) in headers)) {
+      headers[line.slice(0, separator)] = line.slice(separator + 1);
+    }
+  });
+  return {
+    command,
+    headers,
+    body: headerEnd < 0 ? "" : frame.slice(headerEnd + 2),
+  };
+};
+
+export const connectStomp = ({
+  url,
+  token,
+  onConnect,
+  onClose,
+}: StompOptions): StompConnection => {
+  const socket = new WebSocket(url);
+  const handlers = new Map<string, FrameHandler>();
+  let connected = false;
+  let nextId = 0;
+  let buffer = "";
+
+  const sendSubscribe = (id: string, destination: string) => {
+    socket.send(serialize("SUBSCRIBE", { id, destination, ack: "auto" }));
+  };
+  const pending: [string, string][] = [];
+
+  socket.onopen = () => {
+    socket.send(
+      serialize("CONNECT", {
+        "accept-version": "1.2",
+        host: new URL(url).host,
+        "heart-beat": "0,0",
+        Authorization: `Bearer ${token}`,
+      }),
+    );
+  };
+
+  socket.onmessage = (event) => {
+    buffer += typeof event.data === "string" ? event.data : "";
+    let end = buffer.indexOf(NULL);
+    while (end >= 0) {
+      const frame = parse(buffer.slice(0, end));
+      buffer = buffer.slice(end + 1);
+      end = buffer.indexOf(NULL);
+      if (!frame) {
+        continue;
+      }
+      if (frame.command === "CONNECTED") {
+        connected = true;
+        pending.forEach(([id, destination]) => sendSubscribe(id, destination));
+        pending.length = 0;
+        onConnect();
+      } else if (frame.command === "MESSAGE") {
+        handlers.get(frame.headers.subscription)?.(frame.body);
+      } else if (frame.command === "ERROR") {
+        socket.close();
+      }
+    }
+  };
+
+  socket.onclose = () => {
+    connected = false;
+    onClose();
+  };
+
+  return {
+    subscribe: (destination, handler) => {
+      const id = `sub-${nextId++}`;
+      handlers.set(id, handler);
+      if (connected) {
+        sendSubscribe(id, destination);
+      } else {
+        pending.push([id, destination]);
+      }
+    },
+    close: () => {
+      socket.onclose = null;
+      if (socket.readyState === WebSocket.OPEN && connected) {
+        socket.send(serialize("DISCONNECT", {}));
+      }
+      socket.close();
+    },
+  };
+};
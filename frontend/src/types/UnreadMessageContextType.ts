@@ -1,5 +1,9 @@
+import { Message } from "./Message";
+
 export interface UnreadMessagesContextType {
   unreadCount: number;
+  connected: boolean;
   fetchUnreadCount: () => Promise<void>;
   clearUnreadCount: () => void;
+  subscribeToMessages: (listener: (message: Message) => void) => () => void;
 }